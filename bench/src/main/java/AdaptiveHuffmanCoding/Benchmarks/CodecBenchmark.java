@@ -0,0 +1,89 @@
+package AdaptiveHuffmanCoding.Benchmarks;
+
+import AdaptiveHuffmanCoding.AdaptiveHuffmanDecoder;
+import AdaptiveHuffmanCoding.AdaptiveHuffmanEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding and decoding whole files, from reading the input to writing the output. Every operation works
+ * over a whole corpus, so the throughput is in MiB of original data per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecBenchmark {
+
+    /**
+     * The number of bits in each symbol.
+     */
+    @Param({"2", "4", "8"})
+    public int symbolBits;
+
+    /**
+     * The corpus which is encoded and decoded.
+     */
+    @Param({"RANDOM", "TEXT", "ZIPF", "RUNS"})
+    public Corpus corpus;
+
+    /**
+     * The directory the corpus and the files made from it are written to.
+     */
+    private Path directory;
+
+    /**
+     * The names of the corpus file and of its compressed file.
+     */
+    private String originalFile, compressedFile;
+
+    /**
+     * The decoder, which starts a new tree for every file it decodes.
+     */
+    private AdaptiveHuffmanDecoder decoder;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("adaptive-huffman-bench");
+        this.originalFile = this.directory.resolve("corpus.bin").toString();
+        this.compressedFile = this.directory.resolve("corpus.compressed" + this.symbolBits + ".bin").toString();
+
+        Files.write(this.directory.resolve("corpus.bin"), this.corpus.generate());
+
+        //the decode benchmark needs the compressed file to be there from the start
+        new AdaptiveHuffmanEncoder(this.symbolBits).encode(this.originalFile);
+
+        this.decoder = new AdaptiveHuffmanDecoder();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for(File file : this.directory.toFile().listFiles()) {
+            file.delete();
+        }
+        this.directory.toFile().delete();
+    }
+
+    /**
+     * Compresses the corpus file. The encoder keeps its tree between files, so a new encoder is needed each time.
+     */
+    @Benchmark
+    public void encode() {
+        new AdaptiveHuffmanEncoder(this.symbolBits).encode(this.originalFile);
+    }
+
+    /**
+     * Decompresses the compressed corpus file.
+     */
+    @Benchmark
+    public void decode() {
+        this.decoder.decode(this.compressedFile);
+    }
+}
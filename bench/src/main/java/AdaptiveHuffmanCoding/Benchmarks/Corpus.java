@@ -0,0 +1,143 @@
+package AdaptiveHuffmanCoding.Benchmarks;
+
+import java.util.Random;
+
+/**
+ * The kinds of data the benchmarks are run over. Every corpus is generated from a fixed seed, so each run of the
+ * benchmarks sees exactly the same bytes.
+ */
+public enum Corpus {
+
+    /**
+     * Uniformly random bytes, which cannot be compressed.
+     */
+    RANDOM {
+        @Override
+        void fill(byte[] data, Random random) {
+            random.nextBytes(data);
+        }
+    },
+
+    /**
+     * English-like text, made of common words picked with a skew towards the most common ones.
+     */
+    TEXT {
+        @Override
+        void fill(byte[] data, Random random) {
+            //the position of the next character to write
+            int position = 0;
+
+            while(position < data.length) {
+                String word = WORDS[pickZipf(random, WORDS.length)];
+
+                for(int i = 0; i < word.length() && position < data.length; i++) {
+                    data[position++] = (byte) word.charAt(i);
+                }
+
+                if(position < data.length)
+                    data[position++] = (byte) (random.nextInt(12) == 0 ? '\n' : ' ');
+            }
+        }
+    },
+
+    /**
+     * Bytes picked from a Zipf distribution over all 256 values, so a few bytes make up most of the data.
+     */
+    ZIPF {
+        @Override
+        void fill(byte[] data, Random random) {
+            for(int i = 0; i < data.length; i++) {
+                data[i] = (byte) pickZipf(random, 256);
+            }
+        }
+    },
+
+    /**
+     * Long runs of a single byte, the best case for the tree.
+     */
+    RUNS {
+        @Override
+        void fill(byte[] data, Random random) {
+            //the position of the next byte to write
+            int position = 0;
+
+            while(position < data.length) {
+                byte value = (byte) random.nextInt(4);
+                int runEnd = Math.min(data.length, position + 1000 + random.nextInt(10000));
+
+                while(position < runEnd) {
+                    data[position++] = value;
+                }
+            }
+        }
+    };
+
+    /**
+     * The size in bytes of every corpus. Each benchmark operation works over a whole corpus, so operations per second
+     * are the same as MiB per second.
+     */
+    public static final int SIZE = 1024 * 1024;
+
+    /**
+     * The words the text corpus is made from, most common first.
+     */
+    private static final String[] WORDS = {
+            "the", "of", "and", "to", "a", "in", "that", "is", "was", "he", "for", "it", "with", "as", "his", "on",
+            "be", "at", "by", "I", "had", "not", "are", "but", "from", "or", "have", "an", "they", "which", "one",
+            "you", "were", "her", "all", "she", "there", "would", "their", "we", "him", "been", "has", "when", "who",
+            "will", "more", "no", "if", "out", "so", "said", "what", "up", "its", "about", "into", "than", "them",
+            "can", "only", "other", "new", "some", "could", "time", "these", "two", "may", "then", "do", "first",
+            "any", "my", "now", "such", "like", "our", "over", "man", "me", "even", "most", "made", "after", "also",
+            "did", "many", "before", "must", "through", "back", "years", "where", "much", "your", "way", "well"
+    };
+
+    /**
+     * Fills the array with the data of the corpus.
+     * @param data The array to fill.
+     * @param random The source of randomness for the data.
+     */
+    abstract void fill(byte[] data, Random random);
+
+    /**
+     * Generates the corpus.
+     * @return The bytes of the corpus.
+     */
+    public byte[] generate() {
+        byte[] data = new byte[SIZE];
+        this.fill(data, new Random(0x41485546L));
+        return data;
+    }
+
+    /**
+     * Picks a number with a Zipf distribution, where 0 is the most likely and each number after it is less likely.
+     * @param random The source of randomness.
+     * @param count The number of numbers to pick from.
+     * @return A number from 0 up to but not including the count.
+     */
+    private static int pickZipf(Random random, int count) {
+        //a density of 1 / x over [1, count + 1), which gives each number close to a 1 / (number + 1) weight
+        int pick = (int) Math.exp(random.nextDouble() * Math.log(count + 1)) - 1;
+
+        return Math.min(pick, count - 1);
+    }
+
+    /**
+     * Splits the corpus into symbols of the given width, most significant bits first, as the encoder does.
+     * @param data The bytes of the corpus.
+     * @param symbolBits The number of bits in each symbol, which must divide 8.
+     * @return The symbols.
+     */
+    public static int[] toSymbols(byte[] data, int symbolBits) {
+        int symbolsPerByte = 8 / symbolBits;
+        int mask = (1 << symbolBits) - 1;
+        int[] symbols = new int[data.length * symbolsPerByte];
+
+        for(int i = 0; i < data.length; i++) {
+            for(int j = 0; j < symbolsPerByte; j++) {
+                symbols[i * symbolsPerByte + j] = ((data[i] & 0xff) >>> (8 - (j + 1) * symbolBits)) & mask;
+            }
+        }
+
+        return symbols;
+    }
+}
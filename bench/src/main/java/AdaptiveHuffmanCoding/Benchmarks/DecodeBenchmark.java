@@ -0,0 +1,145 @@
+package AdaptiveHuffmanCoding.Benchmarks;
+
+import AdaptiveHuffmanCoding.AdaptiveHuffmanNodes.AdaptiveHuffmanTree;
+import AdaptiveHuffmanCoding.AdaptiveHuffmanNodes.DecodingTable;
+import AdaptiveHuffmanCoding.BitStreams.BitInputStream;
+import AdaptiveHuffmanCoding.BitStreams.BitOutputStream;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how much the decoding table speeds up decoding, by decoding the codes of a corpus by walking the tree one
+ * bit at a time and by looking up the top levels in the table. Every symbol is added to the tree once it is decoded
+ * either way, so the tree updates alone are measured too, as the least decoding can take. Every operation works over a
+ * whole corpus, so the throughput is in MiB of input per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecodeBenchmark {
+
+    /**
+     * The number of bits in each symbol.
+     */
+    @Param({"2", "4", "8"})
+    public int symbolBits;
+
+    /**
+     * The corpus the symbols come from.
+     */
+    @Param({"RANDOM", "TEXT", "ZIPF", "RUNS"})
+    public Corpus corpus;
+
+    /**
+     * The corpus split into symbols.
+     */
+    private int[] symbols;
+
+    /**
+     * The codes of the symbols, as the encoder writes them, with new symbols sent in full after the code of the NYT
+     * node.
+     */
+    private byte[] codes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.symbols = Corpus.toSymbols(this.corpus.generate(), this.symbolBits);
+
+        AdaptiveHuffmanTree tree = new AdaptiveHuffmanTree(this.symbolBits);
+        ByteArrayOutputStream codes = new ByteArrayOutputStream();
+        BitOutputStream out = new BitOutputStream(codes);
+
+        for(int symbol : this.symbols) {
+            if(tree.symbolExists(symbol)) {
+                out.writeBits(tree.getHuffmanCode(symbol), tree.getHuffmanCodeLength(symbol));
+            } else {
+                out.writeBits(tree.getHuffmanCode(AdaptiveHuffmanTree.NYT), tree.getHuffmanCodeLength(AdaptiveHuffmanTree.NYT));
+                out.writeBits(symbol, this.symbolBits);
+            }
+            tree.addCharToTree(symbol);
+        }
+
+        out.close();
+        this.codes = codes.toByteArray();
+    }
+
+    /**
+     * Decodes every symbol by following its code down the tree one bit at a time.
+     * @return The tree, so that the work is not optimised away.
+     * @throws IOException Never, as the codes are read from memory.
+     */
+    @Benchmark
+    public AdaptiveHuffmanTree decodeBitwise() throws IOException {
+        AdaptiveHuffmanTree tree = new AdaptiveHuffmanTree(this.symbolBits);
+        BitInputStream in = new BitInputStream(ByteBuffer.wrap(this.codes));
+
+        for(int i = 0; i < this.symbols.length; i++) {
+            int node = tree.getRoot();
+
+            if(tree.rootIsNYT()) {
+                in.readBit();
+            } else {
+                while(!tree.isLeaf(node))
+                    node = tree.getNextNode(node, in.readBit());
+            }
+
+            tree.addCharToTree(tree.isNYT(node) ? (int) in.readBits(this.symbolBits) : tree.getSymbol(node));
+        }
+
+        return tree;
+    }
+
+    /**
+     * Decodes every symbol by looking up the top levels of the tree in the decoding table, and following any deeper
+     * code one bit at a time, as the decoder does.
+     * @return The tree, so that the work is not optimised away.
+     * @throws IOException Never, as the codes are read from memory.
+     */
+    @Benchmark
+    public AdaptiveHuffmanTree decodeWithTable() throws IOException {
+        AdaptiveHuffmanTree tree = new AdaptiveHuffmanTree(this.symbolBits);
+        DecodingTable table = new DecodingTable(tree);
+        BitInputStream in = new BitInputStream(ByteBuffer.wrap(this.codes));
+
+        for(int i = 0; i < this.symbols.length; i++) {
+            int node = tree.getRoot();
+
+            if(tree.rootIsNYT()) {
+                in.readBit();
+            } else {
+                int entry = table.lookup(in.peekBits(table.getLookupBits()));
+                if(in.skipBits(DecodingTable.getLength(entry)))
+                    node = DecodingTable.getNode(entry);
+
+                while(!tree.isLeaf(node))
+                    node = tree.getNextNode(node, in.readBit());
+            }
+
+            tree.addCharToTree(tree.isNYT(node) ? (int) in.readBits(this.symbolBits) : tree.getSymbol(node));
+        }
+
+        return tree;
+    }
+
+    /**
+     * Adds every symbol to the tree without decoding anything, which is the part of decoding the table cannot speed up.
+     * @return The tree, so that the work is not optimised away.
+     */
+    @Benchmark
+    public AdaptiveHuffmanTree updateOnly() {
+        AdaptiveHuffmanTree tree = new AdaptiveHuffmanTree(this.symbolBits);
+
+        for(int symbol : this.symbols) {
+            tree.addCharToTree(symbol);
+        }
+
+        return tree;
+    }
+}
@@ -0,0 +1,105 @@
+package AdaptiveHuffmanCoding.Benchmarks;
+
+import AdaptiveHuffmanCoding.AdaptiveHuffmanDecoder;
+import AdaptiveHuffmanCoding.AdaptiveHuffmanEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding and decoding whole files in parallel mode on different numbers of threads, so that the scaling
+ * with the number of cores can be checked. The file is several copies of a corpus, cut into chunks of the smallest
+ * size, so that there are enough chunks to keep every thread busy. Every operation works over the whole file, so the
+ * throughput times COPIES is in MiB of original data per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelCodecBenchmark {
+
+    /**
+     * The number of copies of the corpus in the file, which makes 256 chunks of the smallest size.
+     */
+    public static final int COPIES = 16;
+
+    /**
+     * The number of threads the chunks are compressed and decompressed on.
+     */
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int threads;
+
+    /**
+     * The corpus the file is made from.
+     */
+    @Param({"TEXT", "ZIPF"})
+    public Corpus corpus;
+
+    /**
+     * The directory the file and the files made from it are written to.
+     */
+    private Path directory;
+
+    /**
+     * The names of the file and of its compressed file.
+     */
+    private String originalFile, compressedFile;
+
+    /**
+     * The decoder, which decodes the chunks on the given number of threads.
+     */
+    private AdaptiveHuffmanDecoder decoder;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("adaptive-huffman-bench");
+        this.originalFile = this.directory.resolve("corpus.bin").toString();
+        this.compressedFile = this.directory.resolve("corpus.compressed8.bin").toString();
+
+        byte[] data = this.corpus.generate();
+        try(OutputStream out = Files.newOutputStream(this.directory.resolve("corpus.bin"))) {
+            for(int i = 0; i < COPIES; i++) {
+                out.write(data);
+            }
+        }
+
+        //the decode benchmark needs the compressed file to be there from the start
+        this.encode();
+
+        this.decoder = new AdaptiveHuffmanDecoder();
+        this.decoder.setParallelism(this.threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for(File file : this.directory.toFile().listFiles()) {
+            file.delete();
+        }
+        this.directory.toFile().delete();
+    }
+
+    /**
+     * Compresses the file in parallel mode. Each chunk has an encoder of its own, so only the pool is made each time.
+     */
+    @Benchmark
+    public void encode() {
+        AdaptiveHuffmanEncoder encoder = new AdaptiveHuffmanEncoder(8);
+        encoder.setParallelism(this.threads);
+        encoder.encodeParallel(this.originalFile, AdaptiveHuffmanEncoder.MIN_CHUNK_SIZE);
+    }
+
+    /**
+     * Decompresses the compressed file, which was compressed in parallel mode, so its chunks are decoded in parallel.
+     */
+    @Benchmark
+    public void decode() {
+        this.decoder.decode(this.compressedFile);
+    }
+}
@@ -0,0 +1,79 @@
+package AdaptiveHuffmanCoding.Benchmarks;
+
+import AdaptiveHuffmanCoding.AdaptiveHuffmanNodes.AdaptiveHuffmanTree;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the hot path of the tree: adding symbols, and looking up the codes of symbols. Every operation works over
+ * a whole corpus, so the throughput is in MiB of input per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TreeBenchmark {
+
+    /**
+     * The number of bits in each symbol.
+     */
+    @Param({"2", "4", "8"})
+    public int symbolBits;
+
+    /**
+     * The corpus the symbols come from.
+     */
+    @Param({"RANDOM", "TEXT", "ZIPF", "RUNS"})
+    public Corpus corpus;
+
+    /**
+     * The corpus split into symbols.
+     */
+    private int[] symbols;
+
+    /**
+     * A tree which already holds every symbol of the corpus, for looking up codes.
+     */
+    private AdaptiveHuffmanTree fullTree;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.symbols = Corpus.toSymbols(this.corpus.generate(), this.symbolBits);
+
+        this.fullTree = new AdaptiveHuffmanTree(this.symbolBits);
+        for(int symbol : this.symbols) {
+            this.fullTree.addCharToTree(symbol);
+        }
+    }
+
+    /**
+     * Adds every symbol of the corpus to a new tree.
+     * @return The tree, so that the work is not optimised away.
+     */
+    @Benchmark
+    public AdaptiveHuffmanTree addCharToTree() {
+        AdaptiveHuffmanTree tree = new AdaptiveHuffmanTree(this.symbolBits);
+
+        for(int symbol : this.symbols) {
+            tree.addCharToTree(symbol);
+        }
+
+        return tree;
+    }
+
+    /**
+     * Looks up the code and code length of every symbol of the corpus, without changing the tree.
+     * @param blackhole Consumes the codes so that the work is not optimised away.
+     */
+    @Benchmark
+    public void getHuffmanCode(Blackhole blackhole) {
+        for(int symbol : this.symbols) {
+            blackhole.consume(this.fullTree.getHuffmanCode(symbol));
+            blackhole.consume(this.fullTree.getHuffmanCodeLength(symbol));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package AdaptiveHuffmanCoding.Benchmarks;
+
+import AdaptiveHuffmanCoding.AdaptiveHuffmanNodes.AdaptiveHuffmanTree;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures tree updates when many symbols share the same weight. Each symbol of a group is added in turn, so after
+ * every round all of the symbols have the same weight again and each update has to find the highest node of a large
+ * weight group. A group of 2^k symbols makes a tree about k levels deep, so the time per update grows with the group.
+ * The levels every update goes through are counted as well, and JMH reports the time per level as the "levels" result,
+ * which should stay the same however large the group gets.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TreeUpdateBenchmark {
+
+    /**
+     * The number of bits in each symbol of the tree, enough for the largest group.
+     */
+    private static final int SYMBOL_BITS = 16;
+
+    /**
+     * The number of updates in each operation, a whole number of rounds of every group size.
+     */
+    private static final int UPDATES = 1 << 16;
+
+    /**
+     * The number of symbols sharing a weight.
+     */
+    @Param({"16", "64", "256", "1024", "4096", "16384", "65536"})
+    public int groupSize;
+
+    /**
+     * The tree the group is added to.
+     */
+    private AdaptiveHuffmanTree tree;
+
+    /**
+     * Counts the levels of the tree the updates go through. JMH divides the time by the count, as it does by the number
+     * of operations, to give the time per level.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Levels {
+
+        /**
+         * The number of levels updated so far in the iteration.
+         */
+        public long levels;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            this.levels = 0;
+        }
+    }
+
+    /**
+     * Makes a new tree for each iteration, so that the weights stay small, with every symbol of the group added once
+     * so that all of them are in one group of weight 1.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        this.tree = new AdaptiveHuffmanTree(SYMBOL_BITS);
+
+        for(int symbol = 0; symbol < this.groupSize; symbol++) {
+            this.tree.addCharToTree(symbol);
+        }
+    }
+
+    /**
+     * Adds every symbol of the group in turn, for as many rounds as make up the number of updates. The nodes an update
+     * increments are the ones left above the leaf once it is done, so the length of the symbol's code afterwards is the
+     * number of levels the update went through.
+     * @param levels The count of the levels updated.
+     * @return The tree, so that the work is not optimised away.
+     */
+    @Benchmark
+    @OperationsPerInvocation(UPDATES)
+    public AdaptiveHuffmanTree addCharToTree(Levels levels) {
+        for(int i = 0; i < UPDATES; i++) {
+            int symbol = i & (this.groupSize - 1);
+
+            this.tree.addCharToTree(symbol);
+            levels.levels += this.tree.getHuffmanCodeLength(symbol);
+        }
+
+        return this.tree;
+    }
+}
@@ -0,0 +1,325 @@
+package AdaptiveHuffmanCoding;
+
+import AdaptiveHuffmanCoding.AdaptiveHuffmanNodes.ContextTrees;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+
+public class AdaptiveHuffmanCoding {
+
+    /**
+     * Flag which makes the encoder and decoder read their input through memory mapped windows.
+     */
+    private static final String MEMORY_MAPPING_FLAG = "--mmap";
+
+    /**
+     * Flag which makes the encoder compress chunks of the input file in parallel. The decoder decodes such files in
+     * parallel without the flag.
+     */
+    private static final String PARALLEL_FLAG = "--parallel";
+
+    /**
+     * Option naming the dictionary file the encoder starts from, or the decoder needs, which is followed by the name.
+     */
+    private static final String DICTIONARY_OPTION = "--dict";
+
+    /**
+     * Option giving the weight of the root at which the encoder halves the weights of its tree, which is followed by
+     * the weight. The decoder finds the weight in the header of the file.
+     */
+    private static final String RESCALE_OPTION = "--rescale";
+
+    /**
+     * Option giving the number of most recent symbols the encoder's tree is built from, which is followed by the
+     * number. The decoder finds the number in the header of the file.
+     */
+    private static final String WINDOW_OPTION = "--window";
+
+    /**
+     * Flag to code each symbol with a tree picked by the symbol before it when encoding. The decoder finds it in the
+     * header of the file.
+     */
+    private static final String ORDER1_FLAG = "--order1";
+
+    /**
+     * Flag which makes the encoder and decoder read and write files on threads of their own while they code.
+     */
+    private static final String PIPELINED_FLAG = "--pipelined";
+
+    /**
+     * The number of bits in each symbol which makes the encoder pick the number from samples of the file.
+     */
+    private static final String AUTO_WIDTH = "auto";
+
+    /**
+     * Option naming the policy the width is picked with when it is picked from samples, which is followed by
+     * "smallest", "balanced" or "fastest".
+     */
+    private static final String POLICY_OPTION = "--policy";
+
+    /**
+     * The flags and options given on the command line, which each command reads the ones it needs from.
+     */
+    public static final class Options {
+
+        /**
+         * True to read the input file through memory mapped windows.
+         */
+        public boolean useMemoryMapping;
+
+        /**
+         * True to compress the file in parallel chunks.
+         */
+        public boolean useParallelChunks;
+
+        /**
+         * The name of the dictionary file to start from, or null to start from only the NYT node.
+         */
+        public String dictionaryFilename;
+
+        /**
+         * The weight of the root at which the tree is rescaled, or null to never rescale it.
+         */
+        public String rescaleThreshold;
+
+        /**
+         * The number of most recent symbols the tree is built from, or null to build it from them all.
+         */
+        public String windowSize;
+
+        /**
+         * True to code each symbol with the tree of the symbol before it.
+         */
+        public boolean useOrder1Contexts;
+
+        /**
+         * True to read and write the files on threads of their own.
+         */
+        public boolean usePipelining;
+
+        /**
+         * The name of the policy the number of bits in each symbol is picked with when it is "auto", or null for the
+         * balanced policy.
+         */
+        public String widthPolicy;
+    }
+
+    public static void main(String[] args){
+        Options options = new Options();
+
+        //the arguments left once any flags have been taken out
+        List<String> arguments = new ArrayList<String>();
+
+        for(int i = 0; i < args.length; i++) {
+            if(args[i].equals(MEMORY_MAPPING_FLAG))
+                options.useMemoryMapping = true;
+            else if(args[i].equals(PARALLEL_FLAG))
+                options.useParallelChunks = true;
+            else if(args[i].equals(ORDER1_FLAG))
+                options.useOrder1Contexts = true;
+            else if(args[i].equals(PIPELINED_FLAG))
+                options.usePipelining = true;
+            else if(args[i].equals(DICTIONARY_OPTION) && i + 1 < args.length)
+                options.dictionaryFilename = args[++i];
+            else if(args[i].equals(RESCALE_OPTION) && i + 1 < args.length)
+                options.rescaleThreshold = args[++i];
+            else if(args[i].equals(WINDOW_OPTION) && i + 1 < args.length)
+                options.windowSize = args[++i];
+            else if(args[i].equals(POLICY_OPTION) && i + 1 < args.length)
+                options.widthPolicy = args[++i];
+            else
+                arguments.add(args[i]);
+        }
+
+        if(arguments.get(0).equals("-e")) {
+            //the dictionary decides the number of bits in each symbol, so it does not have to be given
+            encode(arguments.get(1), arguments.size() > 2 ? arguments.get(2) : "8", options);
+        } else if (arguments.get(0).equals("-d")) {
+            decode(arguments.get(1), options);
+        } else if (arguments.get(0).equals("-p")) {
+            encodeAndDecode(arguments.get(1), options.useMemoryMapping, options.useParallelChunks);
+        } else if (arguments.get(0).equals("-t")) {
+            train(arguments.get(1), arguments.get(2), arguments.subList(3, arguments.size()));
+        }
+    }
+
+    /**
+     * Compresses a file.
+     * @param readFilename The name of the file to compress.
+     * @param encodingSize The number of bits in each symbol, or "auto" to pick it from samples of the file, which is
+     *                     ignored if there is a dictionary.
+     * @param options The options to compress with, of which decoding ones are ignored.
+     */
+    public static void encode(String readFilename, String encodingSize, Options options){
+        AdaptiveHuffmanEncoder encoder;
+        if(options.dictionaryFilename != null) {
+            Dictionary dictionary = loadDictionary(options.dictionaryFilename);
+            encoder = new AdaptiveHuffmanEncoder(dictionary);
+            encodingSize = Integer.toString(dictionary.getSymbolBits());
+        } else {
+            if(encodingSize.equals(AUTO_WIDTH))
+                encodingSize = Integer.toString(selectWidth(readFilename, options.widthPolicy));
+            encoder = new AdaptiveHuffmanEncoder(Integer.parseInt(encodingSize));
+        }
+        if(options.rescaleThreshold != null) {
+            try {
+                encoder.setRescaleThreshold(Integer.parseInt(options.rescaleThreshold));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Rescale threshold must be a number of at least 2 : " + options.rescaleThreshold);
+                System.err.println("exiting");
+                System.exit(0);
+            }
+        }
+        if(options.windowSize != null) {
+            if(options.rescaleThreshold != null) {
+                System.err.println("A tree cannot be both rescaled and windowed");
+                System.err.println("exiting");
+                System.exit(0);
+            }
+            try {
+                encoder.setWindowSize(Integer.parseInt(options.windowSize));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Window size must be a number of at least 1 : " + options.windowSize);
+                System.err.println("exiting");
+                System.exit(0);
+            }
+        }
+        if(options.useOrder1Contexts) {
+            try {
+                encoder.setOrder1Contexts(true);
+            } catch (IllegalStateException e) {
+                System.err.println("Order 1 contexts need symbols of at most " + ContextTrees.MAX_SYMBOL_BITS + " bits");
+                System.err.println("exiting");
+                System.exit(0);
+            }
+        }
+        encoder.setPipelined(options.usePipelining);
+        System.out.println("Starting encoding " + readFilename + " with " + encodingSize + " bit tree node representation.");
+        if(options.useParallelChunks)
+            encoder.encodeParallel(readFilename);
+        else
+            encoder.encode(readFilename, options.useMemoryMapping);
+        System.out.println("Finished encoding");
+    }
+
+    /**
+     * Picks the number of bits in each symbol to compress a file with, from samples of it.
+     * @param readFilename The name of the file to compress.
+     * @param widthPolicy The name of the policy to pick with, or null for the balanced policy.
+     * @return The number of bits in each symbol.
+     */
+    private static int selectWidth(String readFilename, String widthPolicy) {
+        SymbolWidthSelector.Policy policy = SymbolWidthSelector.Policy.BALANCED;
+        if(widthPolicy != null) {
+            try {
+                policy = SymbolWidthSelector.Policy.valueOf(widthPolicy.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                System.err.println("Policy must be smallest, balanced or fastest : " + widthPolicy);
+                System.err.println("exiting");
+                System.exit(0);
+            }
+        }
+
+        try {
+            return new SymbolWidthSelector(policy).selectWidth(readFilename);
+        } catch (IOException e) {
+            System.err.println("unable to sample file : " + readFilename);
+            System.err.println("exiting");
+            System.exit(0);
+            return 0;
+        }
+    }
+
+    /**
+     * Decompresses a file.
+     * @param fileName The name of the file to decompress.
+     * @param options The options to decompress with: memory mapping, pipelining, and the dictionary the file was
+     *                compressed with, if there was one. The rest are found in the header of the file.
+     */
+    public static void decode(String fileName, Options options) {
+        AdaptiveHuffmanDecoder decoder = new AdaptiveHuffmanDecoder();
+        if(options.dictionaryFilename != null)
+            decoder.addDictionary(loadDictionary(options.dictionaryFilename));
+        decoder.setPipelined(options.usePipelining);
+        System.out.println("Starting decoding " + fileName);
+        decoder.decode(fileName, options.useMemoryMapping);
+        System.out.println("Finished decoding");
+    }
+
+    public static void encodeAndDecode(String fileName, boolean useMemoryMapping, boolean useParallelChunks) {
+        String path = fileName.substring(0, fileName.lastIndexOf("/"));
+        //retrieve the raw file name by removing everything before the absoloute filname
+        String rawFileName = fileName.substring(fileName.lastIndexOf("/") + 1);
+        //The original file name split into the parts before and after the first "." so that the "compressed" file name part
+        //can be inserted
+        String[] compressedFileNameComps = rawFileName.split("\\.", 2);
+
+        //The compressed file name, made up of the file name components from the original file name and the compressed
+        //file path keyword added
+        String compressedFileName = path + "/" + compressedFileNameComps[0] + ".compressed8." + compressedFileNameComps[1];
+
+        Options options = new Options();
+        options.useMemoryMapping = useMemoryMapping;
+        options.useParallelChunks = useParallelChunks;
+
+        encode(fileName, "8", options);
+        decode(compressedFileName, options);
+    }
+
+    /**
+     * Trains a dictionary from sample files and stores it.
+     * @param dictionaryFilename The name of the file to store the dictionary in.
+     * @param encodingSize The number of bits in each symbol.
+     * @param sampleFilenames The names of the sample files, each of which is one sample.
+     */
+    public static void train(String dictionaryFilename, String encodingSize, List<String> sampleFilenames) {
+        //the contents of the sample files
+        List<byte[]> samples = new ArrayList<byte[]>();
+
+        for(String sampleFilename : sampleFilenames) {
+            try {
+                samples.add(Files.readAllBytes(Paths.get(sampleFilename)));
+            } catch (IOException e) {
+                System.err.println("unable to read sample file : " + sampleFilename);
+                System.err.println("exiting");
+                System.exit(0);
+            }
+        }
+
+        Dictionary dictionary = Dictionary.train(Integer.parseInt(encodingSize), samples);
+
+        try(OutputStream out = new FileOutputStream(dictionaryFilename)) {
+            dictionary.write(out);
+        } catch (IOException e) {
+            System.err.println("Error writing dictionary " + dictionaryFilename + " : exiting");
+            System.exit(0);
+        }
+
+        System.out.println(String.format("Trained dictionary %08x from %d samples", dictionary.getId(), samples.size()));
+    }
+
+    /**
+     * Reads a stored dictionary, exiting the program if it cannot be read.
+     * @param dictionaryFilename The name of the dictionary file.
+     * @return The dictionary.
+     */
+    private static Dictionary loadDictionary(String dictionaryFilename) {
+        try(InputStream in = new BufferedInputStream(new FileInputStream(dictionaryFilename))) {
+            return Dictionary.read(in);
+        } catch (IOException e) {
+            System.err.println("unable to read dictionary " + dictionaryFilename + " : " + e.getMessage());
+            System.err.println("exiting");
+            System.exit(0);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,858 @@
+package AdaptiveHuffmanCoding;
+
+import AdaptiveHuffmanCoding.AdaptiveHuffmanNodes.AdaptiveHuffmanTree;
+import AdaptiveHuffmanCoding.AdaptiveHuffmanNodes.ContextTrees;
+import AdaptiveHuffmanCoding.AdaptiveHuffmanNodes.DecodingTable;
+import AdaptiveHuffmanCoding.BitStreams.BitInputStream;
+import AdaptiveHuffmanCoding.BitStreams.BitOutputStream;
+import AdaptiveHuffmanCoding.BitStreams.MappedBitInputStream;
+import AdaptiveHuffmanCoding.BitStreams.PipelinedReader;
+import AdaptiveHuffmanCoding.BitStreams.PipelinedWriter;
+
+import java.io.*;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Created by bh59 on 03/10/16.
+ */
+public class AdaptiveHuffmanDecoder {
+
+    /**
+     * The tree which is being manipulated by the decoder.
+     */
+    public AdaptiveHuffmanTree tree;
+
+    /**
+     * The lookup table over the top levels of the tree, used to follow several bits at a time.
+     */
+    private DecodingTable decodingTable;
+
+    /**
+     * The trees of the contexts of the last file decoded with order 1 contexts, which are kept to be reset for the
+     * next one, or null if there has not been one, and whether the current file uses them.
+     */
+    private ContextTrees contextTrees;
+    private boolean usingContexts;
+
+    /**
+     * The dictionaries the decoder has been given, by their ids.
+     */
+    private final Map<Integer, Dictionary> dictionaries = new HashMap<Integer, Dictionary>();
+
+    /**
+     * The input stream to read bits from the compressed file.
+     */
+    private BitInputStream inputStream;
+
+    /**
+     * The output stream to write to the decompressed file
+     */
+    private BitOutputStream outputStream;
+
+    /**
+     * The size in bytes of the blocks read from and written to files.
+     */
+    private int blockSize;
+
+    /**
+     * The buffers that blocks of the compressed file are read into and blocks of the decompressed file are written
+     * from. Both are allocated the first time a file is decompressed and reused for every file after that.
+     */
+    private ByteBuffer inputBuffer, outputBuffer;
+
+    /**
+     * Whether files are read and written on threads of their own while the symbols are decoded.
+     */
+    private boolean pipelined;
+
+    /**
+     * The number of threads the chunks of a file are decoded on in parallel mode.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Constructor method.
+     */
+    public AdaptiveHuffmanDecoder(){
+        this(AdaptiveHuffmanEncoder.DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Constructs a decoder which reads and writes files in blocks of the given size.
+     * @param blockSize The size in bytes of the blocks read from and written to files.
+     */
+    public AdaptiveHuffmanDecoder(int blockSize){
+        this(blockSize, 8);
+    }
+
+    /**
+     * Constructs a decoder whose tree starts with the given number of bits in each symbol.
+     * @param blockSize The size in bytes of the blocks read from and written to files.
+     * @param symbolBits The number of bits in each symbol, between 1 and AdaptiveHuffmanEncoder.MAX_SYMBOL_BITS.
+     */
+    private AdaptiveHuffmanDecoder(int blockSize, int symbolBits){
+        tree = new AdaptiveHuffmanTree(symbolBits);
+        decodingTable = new DecodingTable(tree);
+
+        if(blockSize < 8) {
+            System.out.println("Block size must be at least 8 bytes. Set to " + AdaptiveHuffmanEncoder.DEFAULT_BLOCK_SIZE + " by default.");
+            blockSize = AdaptiveHuffmanEncoder.DEFAULT_BLOCK_SIZE;
+        }
+
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Gives the decoder a dictionary, so that it can decompress files which were compressed with it.
+     * @param dictionary The dictionary.
+     */
+    public void addDictionary(Dictionary dictionary) {
+        this.dictionaries.put(dictionary.getId(), dictionary);
+    }
+
+    /**
+     * Makes the decoder read the compressed file ahead and write the decompressed file behind on threads of their own,
+     * handing the blocks over through rings of recycled buffers, so that waiting for slow storage overlaps with
+     * decoding the symbols. Files read through memory mapped windows are only written this way, and files compressed
+     * in parallel mode are decoded in parallel as before.
+     * @param pipelined True to read and write on threads of their own, false to do everything on the calling thread.
+     */
+    public void setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+    }
+
+    public boolean isPipelined() {
+        return this.pipelined;
+    }
+
+    /**
+     * Sets the number of threads the chunks of a file are decoded on in parallel mode. It is one for each core unless it
+     * is set.
+     * @param parallelism The number of threads, at least 1.
+     * @throws IllegalArgumentException If the number of threads is below 1.
+     */
+    public void setParallelism(int parallelism) {
+        if(parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+        return this.parallelism;
+    }
+
+    /**
+     * Decodes the given compressed file.
+     * @param filename
+     */
+    public void decode(String filename) {
+        this.decode(filename, false);
+    }
+
+    /**
+     * Decodes the given compressed file. Files which were compressed in parallel mode are decoded in parallel.
+     * @param filename The name of the file to be decompressed.
+     * @param useMemoryMapping True to read the file through memory mapped windows instead of reading it into a buffer.
+     */
+    public void decode(String filename, boolean useMemoryMapping) {
+
+        //the channel of the compressed file
+        FileChannel fileReader = null;
+
+        //the header at the start of the compressed file
+        FileHeader header = null;
+
+        //the symbol that was decoded
+        int symbol;
+
+        try {
+            fileReader = this.setupInputFile(filename);
+        } catch (IOException e) {
+            System.err.println("unable to find file : " + filename);
+            System.err.println("exiting");
+            System.exit(0);
+        }
+
+        //foreign files are turned away before anything is written
+        try {
+            header = FileHeader.read(fileReader);
+        } catch (IOException e) {
+            System.err.println("unable to decode " + filename + " : " + e.getMessage());
+            System.err.println("exiting");
+            System.exit(0);
+        }
+
+        if(header.getSymbolBits() > AdaptiveHuffmanEncoder.MAX_SYMBOL_BITS) {
+            System.err.println(filename + " was compressed with " + header.getSymbolBits() + " bit symbols, at most " + AdaptiveHuffmanEncoder.MAX_SYMBOL_BITS + " bit symbols can be decoded : exiting");
+            System.exit(0);
+        }
+
+        //the dictionary the file was compressed with, if it was
+        Dictionary dictionary = null;
+
+        try {
+            dictionary = this.getDictionary(header);
+        } catch (IOException e) {
+            System.err.println("unable to decode " + filename + " : " + e.getMessage());
+            System.err.println("exiting");
+            System.exit(0);
+        }
+
+        if(header.isChunked()) {
+            this.decodeChunks(filename, fileReader, header, dictionary);
+            return;
+        }
+
+        if(header.isStored()) {
+            this.copyStoredFile(filename, fileReader, header);
+            return;
+        }
+
+        //the file buffers are only needed once a file is decompressed
+        if(this.inputBuffer == null) {
+            this.inputBuffer = ByteBuffer.allocateDirect(this.blockSize);
+            this.outputBuffer = ByteBuffer.allocateDirect(this.blockSize);
+        }
+
+        try {
+            if(useMemoryMapping)
+                this.inputStream = new MappedBitInputStream(fileReader);
+            else if(this.pipelined)
+                this.inputStream = new BitInputStream(new PipelinedReader(fileReader, this.blockSize), this.inputBuffer);
+            else
+                this.inputStream = new BitInputStream(fileReader, this.inputBuffer);
+        } catch (IOException e) {
+            System.err.println("unable to map file : " + filename);
+            System.err.println("exiting");
+            System.exit(0);
+        }
+
+        //the channel of the decompressed file, written behind on a thread of its own when pipelined
+        WritableByteChannel fileWriter = this.setupOutputFile(filename, header);
+        if(this.pipelined)
+            fileWriter = new PipelinedWriter(fileWriter, this.blockSize);
+
+        this.outputStream = new BitOutputStream(fileWriter, this.outputBuffer);
+
+        //every file is decoded from the tree it was compressed from, of the width it was compressed with
+        this.useTree(header, dictionary);
+
+        try {
+            //the number of bits in each symbol, and the number of bits of the original file not decoded yet
+            int symbolBits = header.getSymbolBits();
+            long bitsLeft = header.getOriginalLength() * 8;
+
+            //decode exactly as many symbols as the original file had, ignoring the padding of the last byte
+            while(bitsLeft > 0) {
+                if((symbol = this.decodeSymbol(this.inputStream)) < 0) {
+                    System.err.println(filename + " ended " + bitsLeft + " bits early");
+                    break;
+                }
+
+                //the last symbol may have been padded with 0s to make it whole, which are not written.
+                //symbols which do not line up with bytes are packed back together by the output stream
+                int bitsToWrite = (int) Math.min(bitsLeft, symbolBits);
+                this.outputStream.writeBits(symbol >>> (symbolBits - bitsToWrite), bitsToWrite);
+                bitsLeft -= bitsToWrite;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        try {
+            this.cleanUp();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+    }
+
+    /**
+     * Copies the original bytes of a file which was stored as it was after its header to the decompressed file.
+     * @param filename The name of the file to be decompressed.
+     * @param fileReader The channel of the file.
+     * @param header The header of the file.
+     */
+    private void copyStoredFile(String filename, FileChannel fileReader, FileHeader header) {
+        try {
+            FileChannel fileWriter = this.setupOutputFile(filename, header);
+            FileChannels.transferFully(fileReader, header.getSize(), header.getOriginalLength(), fileWriter);
+
+            fileWriter.close();
+            fileReader.close();
+        } catch (IOException e) {
+            System.err.println("unable to decode " + filename + " : " + e.getMessage());
+            System.err.println("exiting");
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Decodes a file which was compressed in parallel mode, decoding its chunks in parallel on a fork join pool.
+     * @param filename The name of the file to be decompressed.
+     * @param fileReader The channel of the file.
+     * @param header The header of the file.
+     * @param dictionary The dictionary the file was compressed with, or null if there was none.
+     */
+    private void decodeChunks(String filename, FileChannel fileReader, FileHeader header, Dictionary dictionary) {
+
+        //the pool the chunks are decoded on, with a thread for each core unless told otherwise
+        ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+
+        //the chunks which have been handed to the pool and not written yet, in the order they are written
+        Queue<ForkJoinTask<byte[]>> chunksInProgress = new ArrayDeque<ForkJoinTask<byte[]>>();
+
+        try {
+            long fileSize = fileReader.size();
+
+            //the end of the file holds the number of chunks
+            ByteBuffer trailer = ByteBuffer.allocate(AdaptiveHuffmanEncoder.CHUNK_TRAILER_SIZE);
+            if(fileSize < header.getSize() + trailer.capacity()) {
+                System.err.println(filename + " has no chunk index : exiting");
+                System.exit(0);
+            }
+            FileChannels.readFully(fileReader, trailer, fileSize - trailer.capacity());
+            trailer.flip();
+            int chunkCount = trailer.getInt();
+
+            //the position of the chunk index, which comes straight after the last chunk
+            long indexPosition = fileSize - trailer.capacity() - (long) chunkCount * AdaptiveHuffmanEncoder.CHUNK_INDEX_ENTRY_SIZE;
+
+            if(chunkCount < 0 || indexPosition < header.getSize()) {
+                System.err.println(filename + " has a damaged chunk index : exiting");
+                System.exit(0);
+            }
+
+            //the original and compressed lengths of each chunk
+            ByteBuffer index = ByteBuffer.allocate(chunkCount * AdaptiveHuffmanEncoder.CHUNK_INDEX_ENTRY_SIZE);
+            FileChannels.readFully(fileReader, index, indexPosition);
+            index.flip();
+
+            //the channel of the decompressed file
+            FileChannel fileWriter = this.setupOutputFile(filename, header);
+
+            //the position of the next chunk to hand to the pool in the compressed file, starting after the header
+            long nextChunkPosition = header.getSize();
+
+            //the total original length of the chunks handed to the pool so far
+            long originalLengthSoFar = 0;
+
+            for(int chunk = 0; chunk < chunkCount; chunk++) {
+                //keep two chunks for every thread in progress, so the threads stay busy without the whole file being
+                //held in memory
+                while(index.hasRemaining() && chunksInProgress.size() < 2 * pool.getParallelism()) {
+                    int originalLength = index.getInt();
+                    int compressedLength = index.getInt();
+
+                    originalLengthSoFar += originalLength;
+
+                    if(originalLength < 0 || compressedLength < 0 || nextChunkPosition + compressedLength > indexPosition || originalLengthSoFar > header.getOriginalLength()) {
+                        System.err.println(filename + " has a damaged chunk index : exiting");
+                        System.exit(0);
+                    }
+
+                    chunksInProgress.add(pool.submit(new ChunkDecoder(fileReader, nextChunkPosition, compressedLength, originalLength, header, dictionary)));
+                    nextChunkPosition += compressedLength;
+                }
+
+                //the chunks are written in order, so wait for the oldest one
+                FileChannels.writeFully(fileWriter, ByteBuffer.wrap(chunksInProgress.remove().join()));
+            }
+
+            if(originalLengthSoFar != header.getOriginalLength())
+                System.err.println(filename + " has chunks for " + originalLengthSoFar + " of " + header.getOriginalLength() + " bytes");
+
+            fileWriter.close();
+            fileReader.close();
+        } catch (IOException | UncheckedIOException e) {
+            e.printStackTrace();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Decompresses the given bytes in memory, which may have been compressed in memory or read from a compressed file.
+     * @param compressed The compressed bytes.
+     * @return The decompressed bytes.
+     * @throws IOException If the bytes were not compressed by this program, are damaged, or decompress to more bytes
+     * than fit in an array.
+     */
+    public byte[] decompress(byte[] compressed) throws IOException {
+        //the bytes after the header, which is read first so that a damaged length cannot make the array too big
+        ByteBuffer body = ByteBuffer.wrap(compressed);
+        FileHeader header = FileHeader.read(body);
+        long originalLength = header.getOriginalLength();
+
+        if(originalLength > Integer.MAX_VALUE - 8)
+            throw new IOException(originalLength + " bytes are too many to decompress into an array, decompress them into a file instead");
+
+        //stored bytes are the original bytes, and every coded symbol takes at least one bit
+        if(header.isStored() ? originalLength != body.remaining() : originalLength > (long) body.remaining() * header.getSymbolBits())
+            throw new IOException("Data has a damaged header");
+
+        ByteBuffer data = ByteBuffer.allocate((int) originalLength);
+        this.decompress(ByteBuffer.wrap(compressed), data);
+
+        return data.array();
+    }
+
+    /**
+     * Decompresses the compressed bytes from the position of one buffer into another buffer, in memory. The
+     * destination needs getOriginalLength bytes remaining.
+     * @param src The compressed bytes, whose position is moved past them. Anything after them is left unread.
+     * @param dst The buffer to write the decompressed bytes into from its position, which is moved past them.
+     * @return The number of decompressed bytes written.
+     * @throws IOException If the bytes were not compressed by this program or are damaged, in which case the
+     * destination may be left holding part of the decompressed bytes.
+     * @throws BufferOverflowException If the decompressed bytes do not fit in the destination, in which case neither
+     * buffer is changed.
+     */
+    public int decompress(ByteBuffer src, ByteBuffer dst) throws IOException {
+        //the compressed bytes are read through a copy of the source, so it is only moved once they have all been read
+        ByteBuffer compressed = src.duplicate().order(ByteOrder.BIG_ENDIAN);
+
+        FileHeader header = FileHeader.read(compressed);
+
+        if(header.getSymbolBits() > AdaptiveHuffmanEncoder.MAX_SYMBOL_BITS)
+            throw new IOException("Data was compressed with " + header.getSymbolBits() + " bit symbols, at most " + AdaptiveHuffmanEncoder.MAX_SYMBOL_BITS + " bit symbols can be decoded");
+
+        if(header.getOriginalLength() > dst.remaining())
+            throw new BufferOverflowException();
+
+        //the dictionary the bytes were compressed with, if they were
+        Dictionary dictionary = this.getDictionary(header);
+
+        //the position of the destination before anything was written
+        int start = dst.position();
+
+        if(header.isChunked()) {
+            this.decompressChunks(compressed, header, dictionary, dst);
+        } else if(header.isStored()) {
+            this.copyStored(compressed, (int) header.getOriginalLength(), dst);
+        } else {
+            //every message is decoded from the tree it was compressed from, of the width it was compressed with
+            this.useTree(header, dictionary);
+            this.decodeBody(compressed, header.getOriginalLength(), header.getSymbolBits(), dst);
+        }
+
+        src.position(compressed.position());
+
+        return dst.position() - start;
+    }
+
+    /**
+     * Gets the number of bytes the compressed bytes at the position of the buffer decompress to, from their header.
+     * The position of the buffer is not moved.
+     * @param src The compressed bytes.
+     * @return The number of bytes they decompress to.
+     * @throws IOException If the bytes do not start with a header this version can read.
+     */
+    public static long getOriginalLength(ByteBuffer src) throws IOException {
+        return FileHeader.read(src.duplicate()).getOriginalLength();
+    }
+
+    /**
+     * Decompresses bytes in memory which were compressed in parallel mode, one chunk after another.
+     * @param compressed The compressed bytes, from straight after the header to the end of the chunk index. Its
+     *                   position is moved to its limit.
+     * @param header The header of the compressed bytes.
+     * @param dictionary The dictionary the bytes were compressed with, or null if there was none.
+     * @param dst The buffer to write the decompressed bytes into.
+     * @throws IOException If the chunk index or any of the chunks are damaged.
+     */
+    private void decompressChunks(ByteBuffer compressed, FileHeader header, Dictionary dictionary, ByteBuffer dst) throws IOException {
+        //the end of the compressed bytes holds the number of chunks
+        int end = compressed.limit();
+        if(compressed.remaining() < AdaptiveHuffmanEncoder.CHUNK_TRAILER_SIZE)
+            throw new IOException("Data has no chunk index");
+        int chunkCount = compressed.getInt(end - AdaptiveHuffmanEncoder.CHUNK_TRAILER_SIZE);
+
+        //the position of the chunk index, which comes straight after the last chunk
+        long indexPosition = end - AdaptiveHuffmanEncoder.CHUNK_TRAILER_SIZE - (long) chunkCount * AdaptiveHuffmanEncoder.CHUNK_INDEX_ENTRY_SIZE;
+
+        if(chunkCount < 0 || indexPosition < compressed.position())
+            throw new IOException("Data has a damaged chunk index");
+
+        //the total original length of the chunks decoded so far
+        long originalLengthSoFar = 0;
+
+        for(int chunk = 0; chunk < chunkCount; chunk++) {
+            int entry = (int) indexPosition + chunk * AdaptiveHuffmanEncoder.CHUNK_INDEX_ENTRY_SIZE;
+            int originalLength = compressed.getInt(entry);
+            int compressedLength = compressed.getInt(entry + 4);
+
+            originalLengthSoFar += originalLength;
+
+            if(originalLength < 0 || compressedLength < 0 || compressed.position() + (long) compressedLength > indexPosition || originalLengthSoFar > header.getOriginalLength())
+                throw new IOException("Data has a damaged chunk index");
+
+            //each chunk is decoded from a tree of its own, and only as far as its own end
+            ByteBuffer compressedChunk = compressed.slice();
+            compressedChunk.limit(compressedLength);
+
+            if(header.isStoredChunk(originalLength, compressedLength)) {
+                this.copyStored(compressedChunk, originalLength, dst);
+            } else {
+                this.useTree(header, dictionary);
+                this.decodeBody(compressedChunk, originalLength, header.getSymbolBits(), dst);
+            }
+            compressed.position(compressed.position() + compressedLength);
+        }
+
+        if(originalLengthSoFar != header.getOriginalLength())
+            throw new IOException("Data has chunks for " + originalLengthSoFar + " of " + header.getOriginalLength() + " bytes");
+
+        compressed.position(end);
+    }
+
+    /**
+     * Copies bytes which were stored as they were.
+     * @param stored The stored bytes, whose position is moved past them.
+     * @param originalLength The number of bytes to copy.
+     * @param dst The buffer to copy the bytes into.
+     * @throws IOException If there are fewer stored bytes than that.
+     */
+    private void copyStored(ByteBuffer stored, int originalLength, ByteBuffer dst) throws IOException {
+        if(stored.remaining() < originalLength)
+            throw new EOFException("Stored data ended after " + stored.remaining() + " of " + originalLength + " bytes");
+
+        ByteBuffer bytes = stored.slice();
+        bytes.limit(originalLength);
+        dst.put(bytes);
+        stored.position(stored.position() + originalLength);
+    }
+
+    /**
+     * Decodes compressed bytes in memory with the current tree, up to the original length, packing the symbols back
+     * together into bytes.
+     * @param compressed The compressed bytes, whose position is moved past the last byte any bits were read from.
+     * @param originalLength The number of bytes to decode.
+     * @param symbolBits The number of bits in each symbol.
+     * @param dst The buffer to write the decoded bytes into.
+     * @throws IOException If the compressed bytes ran out before the original length was reached.
+     */
+    private void decodeBody(ByteBuffer compressed, long originalLength, int symbolBits, ByteBuffer dst) throws IOException {
+        BitInputStream in = new BitInputStream(compressed);
+
+        //the symbol that was decoded
+        int symbol;
+
+        //the decoded bits which have not made up a whole byte yet, and the number of them
+        int pendingBits = 0, pendingBitCount = 0;
+
+        //the number of bytes decoded so far
+        long bytesDecoded = 0;
+
+        //the bytes end after their original length, not at the end of the last compressed byte
+        while(bytesDecoded < originalLength) {
+            if((symbol = this.decodeSymbol(in)) < 0)
+                throw new EOFException("Compressed data ended after " + bytesDecoded + " of " + originalLength + " bytes");
+
+            //symbols narrower than a byte are packed back together into bytes
+            pendingBits = (pendingBits << symbolBits) | symbol;
+            pendingBitCount += symbolBits;
+            while(pendingBitCount >= 8 && bytesDecoded < originalLength) {
+                pendingBitCount -= 8;
+                dst.put((byte) (pendingBits >>> pendingBitCount));
+                bytesDecoded++;
+            }
+        }
+
+        in.close();
+    }
+
+    /**
+     * Reads the code of the next symbol from the input and updates the tree with it. The top levels of the tree are
+     * crossed in one step with the decoding table, and any deeper code is walked one bit at a time. A code ending at
+     * the NYT node is followed by the new symbol itself.
+     * @param in The stream to read the code from.
+     * @return The symbol that was decoded, or -1 if the input ran out part of the way through a code or reached the end
+     * marker of a stream.
+     * @throws IOException If the input could not be read.
+     */
+    int decodeSymbol(BitInputStream in) throws IOException {
+
+        //the tree the symbol was coded with, which is the tree of the symbol before it with order 1 contexts
+        AdaptiveHuffmanTree codingTree = this.tree;
+        DecodingTable codingTable = this.decodingTable;
+
+        if(this.usingContexts) {
+            codingTree = this.contextTrees.getTree();
+            codingTable = this.contextTrees.getDecodingTable();
+        }
+
+        int currNode = codingTree.getRoot();
+
+        int currBit, symbol, entry;
+
+        //when the tree only has the NYT node its code is a single 0
+        if(codingTree.rootIsNYT()) {
+            if(in.readBit() < 0)
+                return -1;
+        } else {
+            //follow as many bits as the table covers at once, unless the input is about to run out
+            entry = codingTable.lookup(in.peekBits(codingTable.getLookupBits()));
+            if(in.skipBits(DecodingTable.getLength(entry)))
+                currNode = DecodingTable.getNode(entry);
+        }
+
+        //follow the rest of the bits down the tree until a leaf is reached
+        while(!codingTree.isLeaf(currNode)) {
+            if((currBit = in.readBit()) < 0)
+                return -1;
+            currNode = codingTree.getNextNode(currNode, currBit);
+        }
+
+        //a new symbol is sent in full after the code of the NYT node
+        if(codingTree.isNYT(currNode)) {
+            if((symbol = (int) in.readBits(codingTree.getSymbolBits())) < 0)
+                return -1;
+
+            //a symbol the tree already has is never sent in full, apart from in the end marker of a stream
+            if(codingTree.symbolExists(symbol))
+                return -1;
+        } else {
+            symbol = codingTree.getSymbol(currNode);
+        }
+
+        codingTree.addCharToTree(symbol);
+
+        if(this.usingContexts)
+            this.contextTrees.setContext(symbol);
+
+        return symbol;
+    }
+
+    /**
+     * Puts the decoder back into the state it was constructed in, so it can start decompressing something new, without
+     * allocating anything. The dictionaries it has been given are kept.
+     */
+    public void reset() {
+        this.tree.reset();
+        this.usingContexts = false;
+    }
+
+    /**
+     * Finds the dictionary named in the header of a file.
+     * @param header The header of the file.
+     * @return The dictionary, or null if the file was not compressed with one.
+     * @throws IOException If the decoder has not been given the dictionary, or it has a different symbol width.
+     */
+    private Dictionary getDictionary(FileHeader header) throws IOException {
+        if(!header.hasDictionary())
+            return null;
+
+        Dictionary dictionary = this.dictionaries.get(header.getDictionaryId());
+
+        if(dictionary == null)
+            throw new IOException(String.format("File was compressed with dictionary %08x, which the decoder has not been given", header.getDictionaryId()));
+
+        if(dictionary.getSymbolBits() != header.getSymbolBits())
+            throw new IOException("File has a damaged header");
+
+        return dictionary;
+    }
+
+    /**
+     * Resets the tree if it has the width given in a header, or replaces the tree and its decoding table with new ones
+     * if not, then copies the tree of the dictionary into it if there is one, and makes it rescale or keep a window as
+     * the header says. With order 1 contexts, the tree is the one every context's tree starts from.
+     * @param header The header of the file being decoded.
+     * @param dictionary The dictionary to start from, or null to start from only the NYT node.
+     */
+    private void useTree(FileHeader header, Dictionary dictionary) {
+        this.setSymbolBits(header.getSymbolBits());
+
+        //rescaling is turned off first, as a tree cannot rescale and keep a window at once
+        this.tree.setRescaleThreshold(AdaptiveHuffmanTree.NO_RESCALING);
+        this.tree.setWindowSize(header.getWindowSize());
+        this.tree.setRescaleThreshold(header.getRescaleThreshold());
+
+        if(dictionary != null)
+            this.tree.copyFrom(dictionary.getTree());
+        else
+            this.tree.reset();
+
+        //the trees of the contexts are kept for the next file of the same width
+        this.usingContexts = header.usesOrder1Contexts();
+        if(this.usingContexts) {
+            if(this.contextTrees == null)
+                this.contextTrees = new ContextTrees(this.tree, true);
+            this.contextTrees.reset();
+        }
+    }
+
+    /**
+     * Replaces the tree and its decoding table with new ones of the given width, unless the tree already has it.
+     * @param symbolBits The number of bits in each symbol, between 1 and AdaptiveHuffmanEncoder.MAX_SYMBOL_BITS.
+     */
+    void setSymbolBits(int symbolBits) {
+        if(this.tree.getSymbolBits() != symbolBits) {
+            this.tree = new AdaptiveHuffmanTree(symbolBits);
+            this.decodingTable = new DecodingTable(this.tree);
+
+            //the trees of the contexts start from the tree, so they are made again for the new one
+            this.contextTrees = null;
+        }
+    }
+
+    /**
+     * Makes the tree halve its weights whenever the weight of its root reaches the given threshold, as the encoder's
+     * does. Files and messages set it from their header, so this is only needed by streams, which have no header.
+     * @param rescaleThreshold The weight of the root at which the weights are halved, at least 2, or
+     *                         AdaptiveHuffmanTree.NO_RESCALING to never rescale.
+     * @throws IllegalArgumentException If the threshold is below 2 and is not NO_RESCALING.
+     * @throws IllegalStateException If the decoder keeps a window.
+     */
+    void setRescaleThreshold(int rescaleThreshold) {
+        this.tree.setRescaleThreshold(rescaleThreshold);
+    }
+
+    /**
+     * Makes the tree hold only the given number of most recent symbols, as the encoder's does. Files and messages set
+     * it from their header, so this is only needed by streams, which have no header.
+     * @param windowSize The number of symbols in the window, between 1 and AdaptiveHuffmanTree.MAX_WINDOW_SIZE, or
+     *                   AdaptiveHuffmanTree.NO_WINDOW to keep every symbol.
+     * @throws IllegalArgumentException If the window size is out of range.
+     * @throws IllegalStateException If the decoder rescales its weights.
+     */
+    void setWindowSize(int windowSize) {
+        this.tree.setWindowSize(windowSize);
+    }
+
+    public void cleanUp() throws IOException {
+        this.outputStream.close();
+        this.inputStream.close();
+    }
+
+    public void outputChar(int charToWrite) throws IOException {
+        this.outputStream.writeBits(charToWrite, 8);
+    }
+
+    private FileChannel setupInputFile(String inputFileName) throws IOException {
+        return FileChannel.open(Paths.get(inputFileName), StandardOpenOption.READ);
+    }
+
+    private FileChannel setupOutputFile(String absolouteFileName, FileHeader header){
+
+        //name of new file replaces compressed with decompressed in title, or has decompressed added to the end of it
+        //so that the compressed file is never overwritten
+        String decompressedFileName = absolouteFileName.replace(".compressed" + header.getSymbolBits() + ".", ".decompressed.");
+        if(decompressedFileName.equals(absolouteFileName))
+            decompressedFileName = absolouteFileName + ".decompressed";
+
+        //The channel of the given file name
+        FileChannel fout = null;
+
+        //create new file from file name, replacing any file already there
+        try {
+            fout = FileChannel.open(Paths.get(decompressedFileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("Error creating new file " + decompressedFileName + " : exiting");
+            System.exit(0);
+        }
+
+        return fout;
+    }
+
+    public void printTree() {
+        new TreePrinter().printTree(this.tree);
+        System.out.println("\n\n\n\n\n");
+    }
+
+    /**
+     * Decodes one chunk of a file compressed in parallel mode with a tree of its own.
+     */
+    private static class ChunkDecoder extends RecursiveTask<byte[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The channel of the file the chunk is read from.
+         */
+        private final FileChannel fileReader;
+
+        /**
+         * The position of the chunk in the file and its length in bytes.
+         */
+        private final long position;
+        private final int compressedLength;
+
+        /**
+         * The length of the chunk in bytes before it was compressed.
+         */
+        private final int originalLength;
+
+        /**
+         * The header of the file, which says how every chunk was compressed.
+         */
+        private final FileHeader header;
+
+        /**
+         * The dictionary the chunk was compressed with, or null if there was none.
+         */
+        private final Dictionary dictionary;
+
+        ChunkDecoder(FileChannel fileReader, long position, int compressedLength, int originalLength, FileHeader header, Dictionary dictionary) {
+            this.fileReader = fileReader;
+            this.position = position;
+            this.compressedLength = compressedLength;
+            this.originalLength = originalLength;
+            this.header = header;
+            this.dictionary = dictionary;
+        }
+
+        /**
+         * Reads the chunk and decodes it.
+         * @return The decoded chunk.
+         */
+        @Override
+        protected byte[] compute() {
+            //the decoded chunk
+            byte[] chunk = new byte[this.originalLength];
+
+            //a stored chunk is read straight into place
+            if(this.header.isStoredChunk(this.originalLength, this.compressedLength)) {
+                try {
+                    FileChannels.readFully(this.fileReader, ByteBuffer.wrap(chunk), this.position);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+
+                return chunk;
+            }
+
+            //the decoder of the chunk, with a new tree of the width of the file, so that it is not made twice
+            AdaptiveHuffmanDecoder decoder = new AdaptiveHuffmanDecoder(AdaptiveHuffmanEncoder.DEFAULT_BLOCK_SIZE, this.header.getSymbolBits());
+            decoder.useTree(this.header, this.dictionary);
+
+            //the chunk as it is read from the file
+            byte[] compressedChunk = new byte[this.compressedLength];
+
+            try {
+                FileChannels.readFully(this.fileReader, ByteBuffer.wrap(compressedChunk), this.position);
+                decoder.decodeBody(ByteBuffer.wrap(compressedChunk), this.originalLength, this.header.getSymbolBits(), ByteBuffer.wrap(chunk));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            return chunk;
+        }
+    }
+
+}
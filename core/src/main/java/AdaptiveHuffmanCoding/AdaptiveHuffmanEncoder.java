@@ -0,0 +1,1218 @@
+package AdaptiveHuffmanCoding;
+
+import AdaptiveHuffmanCoding.AdaptiveHuffmanNodes.AdaptiveHuffmanTree;
+import AdaptiveHuffmanCoding.AdaptiveHuffmanNodes.ContextTrees;
+import AdaptiveHuffmanCoding.BitStreams.BitOutputStream;
+import AdaptiveHuffmanCoding.BitStreams.MappedFileWindows;
+import AdaptiveHuffmanCoding.BitStreams.PipelinedReader;
+import AdaptiveHuffmanCoding.BitStreams.PipelinedWriter;
+
+import java.io.*;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+public class AdaptiveHuffmanEncoder {
+
+    /**
+     * The default size in bytes of the blocks read from and written to files.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    /**
+     * The default size in bytes of the chunks of the input which are compressed independently of each other in
+     * parallel mode.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * The smallest and largest sizes in bytes allowed for the chunks compressed in parallel mode.
+     */
+    public static final int MIN_CHUNK_SIZE = 64 * 1024, MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * The size in bytes of each entry in the chunk index of a file compressed in parallel mode, which holds the
+     * original length and the compressed length of the chunk.
+     */
+    static final int CHUNK_INDEX_ENTRY_SIZE = 8;
+
+    /**
+     * The size in bytes of the end of a file compressed in parallel mode, after the chunk index, which holds the number
+     * of chunks.
+     */
+    static final int CHUNK_TRAILER_SIZE = 4;
+
+    /**
+     * The largest number of bits in each symbol handed to the tree.
+     */
+    public static final int MAX_SYMBOL_BITS = 16;
+
+    /**
+     * The number of samples taken from data to estimate whether it is too random to compress, and the largest and
+     * smallest size in bytes of each. Data too short for samples of the smallest size is always compressed.
+     */
+    private static final int SAMPLE_COUNT = 4, SAMPLE_SIZE = 16 * 1024, MIN_SAMPLE_SIZE = 4 * 1024;
+
+    /**
+     * The largest number of bits in each symbol for which data is sampled. Wider symbols have too many values for
+     * samples of a few thousand symbols to tell how often each comes up.
+     */
+    private static final int MAX_SAMPLED_SYMBOL_BITS = 8;
+
+    /**
+     * The entropy of the symbols in every sample, as a fraction of the number of bits in each symbol, from which data
+     * is stored as it is. Even a code fitted exactly to such data would save less than 1% of it, which the cost of
+     * sending each new symbol in full and of codes being whole numbers of bits takes back.
+     */
+    private static final double INCOMPRESSIBLE_ENTROPY = 0.99;
+
+    /**
+     * The number of bits from the input to use when handing values to the tree to encode.
+     * Must be between 1 and 16. Symbols wider or narrower than a byte are read across byte boundaries.
+     */
+    private int numberOfBitsToUse;
+
+    /**
+     * The tree to be used whilst encoding the Huffman node
+     */
+    AdaptiveHuffmanTree tree;
+
+    /**
+     * The dictionary every file starts from, or null if every file starts from a tree holding only the NYT node.
+     */
+    private Dictionary dictionary;
+
+    /**
+     * The trees each symbol is coded with, picked by the symbol before it, or null if every symbol is coded with the
+     * tree. The tree is then only the one the trees of the contexts start from.
+     */
+    private ContextTrees contextTrees;
+
+    /**
+     * The bits of the input which have not been handed to the tree yet, held in the lowest bits, and the number of
+     * them. There are always fewer of them than the number of bits in a symbol.
+     */
+    private int pendingBits, pendingBitCount;
+
+    /**
+     * The size in bytes of the blocks read from and written to files.
+     */
+    private int blockSize;
+
+    /**
+     * The buffers that blocks of the input file are read into and blocks of the output file are written from.
+     * Both are allocated the first time a file is compressed and reused for every file after that.
+     */
+    private ByteBuffer inputBuffer, outputBuffer;
+
+    /**
+     * Whether files are read and written on threads of their own while the symbols are coded.
+     */
+    private boolean pipelined;
+
+    /**
+     * The number of threads the chunks of a file are compressed on in parallel mode.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    public AdaptiveHuffmanEncoder(int numberOfBitsToUse) {
+        this(numberOfBitsToUse, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Constructs an encoder which reads and writes files in blocks of the given size.
+     * @param numberOfBitsToUse The number of bits from a character to use for each value handed to the tree.
+     * @param blockSize The size in bytes of the blocks read from and written to files.
+     */
+    public AdaptiveHuffmanEncoder(int numberOfBitsToUse, int blockSize) {
+        if(numberOfBitsToUse < 1 || numberOfBitsToUse > MAX_SYMBOL_BITS){
+            System.out.println("Number of bits to use value is not between 1 and " + MAX_SYMBOL_BITS + ". Set to 8 by default.");
+            this.numberOfBitsToUse = 8;
+        } else {
+            this.numberOfBitsToUse = numberOfBitsToUse;
+        }
+
+        this.tree = new AdaptiveHuffmanTree(this.numberOfBitsToUse);
+
+        if(blockSize < 8) {
+            System.out.println("Block size must be at least 8 bytes. Set to " + DEFAULT_BLOCK_SIZE + " by default.");
+            blockSize = DEFAULT_BLOCK_SIZE;
+        }
+
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Constructs an encoder which starts every file from the tree of the given dictionary, with the number of bits in
+     * each symbol of the dictionary. Only a decoder given the same dictionary can decompress the files.
+     * @param dictionary The dictionary to start from.
+     */
+    public AdaptiveHuffmanEncoder(Dictionary dictionary) {
+        this(dictionary.getSymbolBits());
+        this.dictionary = dictionary;
+        this.reset();
+    }
+
+    /**
+     * Puts the encoder back into the state it was constructed in, so it can start compressing something new, without
+     * allocating anything.
+     */
+    public void reset() {
+        if(this.dictionary != null)
+            this.tree.copyFrom(this.dictionary.getTree());
+        else
+            this.tree.reset();
+
+        if(this.contextTrees != null)
+            this.contextTrees.reset();
+
+        this.pendingBits = 0;
+        this.pendingBitCount = 0;
+    }
+
+    public int getSymbolBits() {
+        return this.numberOfBitsToUse;
+    }
+
+    /**
+     * Makes the tree halve its weights whenever the weight of its root reaches the given threshold, so that it keeps
+     * adapting to data whose mix of symbols changes and its weights stay small however long the data is. The
+     * threshold is written in the header of every file, so the decoder rescales at the same points. It is kept when
+     * the encoder is reset.
+     * @param rescaleThreshold The weight of the root at which the weights are halved, at least 2, or
+     *                         AdaptiveHuffmanTree.NO_RESCALING to never rescale.
+     * @throws IllegalArgumentException If the threshold is below 2 and is not NO_RESCALING.
+     * @throws IllegalStateException If the encoder keeps a window.
+     */
+    public void setRescaleThreshold(int rescaleThreshold) {
+        this.tree.setRescaleThreshold(rescaleThreshold);
+    }
+
+    public int getRescaleThreshold() {
+        return this.tree.getRescaleThreshold();
+    }
+
+    /**
+     * Makes the tree hold only the given number of most recent symbols, so that its codes follow the recent data
+     * rather than all of it. The window size is written in the header of every file, so the decoder keeps the same
+     * window. It is kept when the encoder is reset, and cannot be used together with rescaling.
+     * @param windowSize The number of symbols in the window, between 1 and AdaptiveHuffmanTree.MAX_WINDOW_SIZE, or
+     *                   AdaptiveHuffmanTree.NO_WINDOW to keep every symbol.
+     * @throws IllegalArgumentException If the window size is out of range.
+     * @throws IllegalStateException If the encoder rescales its weights.
+     */
+    public void setWindowSize(int windowSize) {
+        this.tree.setWindowSize(windowSize);
+    }
+
+    public int getWindowSize() {
+        return this.tree.getWindowSize();
+    }
+
+    /**
+     * Makes the encoder code each symbol with a tree of its own for the symbol before it, so that symbols which tend
+     * to follow each other get shorter codes. Text and structured data compress noticeably better this way, at the
+     * cost of a tree for each symbol which comes up, each of which has to see a symbol once before giving it a short
+     * code. It is written in the header of every file, and kept when the encoder is reset. An encoder using it cannot
+     * be snapshotted.
+     * @param useContexts True to pick the tree by the symbol before, false to code every symbol with one tree.
+     * @throws IllegalStateException If the encoder uses more than ContextTrees.MAX_SYMBOL_BITS bits in each symbol.
+     */
+    public void setOrder1Contexts(boolean useContexts) {
+        if(useContexts && this.numberOfBitsToUse > ContextTrees.MAX_SYMBOL_BITS)
+            throw new IllegalStateException("Order 1 contexts need symbols of at most " + ContextTrees.MAX_SYMBOL_BITS + " bits");
+
+        if(!useContexts)
+            this.contextTrees = null;
+        else if(this.contextTrees == null)
+            this.contextTrees = new ContextTrees(this.tree, false);
+    }
+
+    public boolean usesOrder1Contexts() {
+        return this.contextTrees != null;
+    }
+
+    /**
+     * Makes the encoder read the file ahead and write the compressed file behind on threads of their own, handing the
+     * blocks over through rings of recycled buffers, so that waiting for slow storage overlaps with coding the symbols.
+     * The compressed file is the same either way. Files read through memory mapped windows are only written this way.
+     * @param pipelined True to read and write on threads of their own, false to do everything on the calling thread.
+     */
+    public void setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+    }
+
+    public boolean isPipelined() {
+        return this.pipelined;
+    }
+
+    /**
+     * Sets the number of threads the chunks of a file are compressed on in parallel mode. It is one for each core unless it
+     * is set.
+     * @param parallelism The number of threads, at least 1.
+     * @throws IllegalArgumentException If the number of threads is below 1.
+     */
+    public void setParallelism(int parallelism) {
+        if(parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+        return this.parallelism;
+    }
+
+    /**
+     * Writes a snapshot of the encoder, the tree and the bits of the next symbol read so far, from which a new
+     * encoder can carry on exactly where this one is.
+     * @param out The stream to write the snapshot to.
+     * @throws IOException If the snapshot could not be written.
+     * @throws IllegalStateException If the encoder uses order 1 contexts.
+     */
+    public void writeSnapshot(DataOutput out) throws IOException {
+        this.ensureNoContexts();
+        this.tree.writeSnapshot(out);
+        out.writeByte(this.pendingBitCount);
+        out.writeShort(this.pendingBits & ((1 << this.pendingBitCount) - 1));
+    }
+
+    /**
+     * Puts the encoder into the state held in a snapshot written by writeSnapshot.
+     * @param in The stream to read the snapshot from.
+     * @throws IOException If the snapshot could not be read, is damaged, or was written by an encoder using a
+     *                     different number of bits in each symbol.
+     * @throws IllegalStateException If the encoder uses order 1 contexts.
+     */
+    public void readSnapshot(DataInput in) throws IOException {
+        this.ensureNoContexts();
+        this.tree.readSnapshot(in);
+
+        int bitCount = in.readUnsignedByte();
+        int bits = in.readUnsignedShort();
+
+        if(bitCount >= this.numberOfBitsToUse || bits >>> bitCount != 0) {
+            this.reset();
+            throw new IOException("Snapshot is damaged");
+        }
+
+        this.pendingBits = bits;
+        this.pendingBitCount = bitCount;
+    }
+
+    /**
+     * Checks that the encoder codes every symbol with the one tree, which is all a snapshot holds.
+     * @throws IllegalStateException If the encoder uses order 1 contexts.
+     */
+    private void ensureNoContexts() {
+        if(this.contextTrees != null)
+            throw new IllegalStateException("An encoder using order 1 contexts cannot be snapshotted");
+    }
+
+    /**
+     * Compresses the given file using Adaptive Huffman Encoding.
+     * @param filename The name of the file to be compressed.
+     */
+    public void encode(String filename){
+        this.encode(filename, false);
+    }
+
+    /**
+     * Compresses the given file using Adaptive Huffman Encoding.
+     * @param filename The name of the file to be compressed.
+     * @param useMemoryMapping True to read the file through memory mapped windows instead of reading it into a buffer.
+     */
+    public void encode(String filename, boolean useMemoryMapping){
+
+        //The reader of the file given to this function.
+        FileChannel fileReader = null;
+
+        //The value that is read from the reader when it has reached the end of file.
+        final int EOFConst = -1;
+
+        //The current window of the file when it is memory mapped, or block of it when it is read ahead.
+        ByteBuffer window;
+
+        //every file starts with a tree holding only the NYT node, or the tree of the dictionary, which the decoder
+        //starts with too
+        this.reset();
+
+        //the file buffers are only needed once a file is compressed
+        if(this.inputBuffer == null) {
+            this.inputBuffer = ByteBuffer.allocateDirect(this.blockSize);
+            this.outputBuffer = ByteBuffer.allocateDirect(this.blockSize);
+        }
+
+        //Try to initialise the file reader with the given file name.
+        //If there are any problems then exit the program.
+        try {
+            fileReader = this.getFileReader(filename);
+        } catch(IOException e) {
+            System.out.println("File " + filename + " not found. Exiting.");
+            System.exit(0);
+        }
+
+        //data which is compressed or encrypted already is stored as it is, without coding any of it
+        try {
+            if(this.looksIncompressible(fileReader)) {
+                this.storeFile(filename);
+                fileReader.close();
+                return;
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading file : exiting.");
+            System.exit(0);
+        }
+
+        //the channel of the compressed file, written behind on a thread of its own when pipelined
+        WritableByteChannel fileWriter = this.setupOutputFile(filename);
+        if(this.pipelined)
+            fileWriter = new PipelinedWriter(fileWriter, this.blockSize);
+
+        //the bit output stream for the given file
+        BitOutputStream out;
+
+        //Tries to read the file a block or a window at a time up to the end of the file, encoding each character.
+        //If there are any problems then exit the program.
+        try {
+            //the header records the original length, so the decoder knows where the last symbol ends
+            FileChannels.writeFully(fileWriter, this.makeHeader(0, fileReader.size()).toBuffer());
+            out = new BitOutputStream(fileWriter, this.outputBuffer);
+
+            if(useMemoryMapping) {
+                MappedFileWindows windows = new MappedFileWindows(fileReader);
+                while((window = windows.nextWindow()) != null) {
+                    this.encodeBlock(window, out);
+                }
+            } else if(this.pipelined) {
+                //the blocks are read ahead on a thread of their own and coded straight from its buffers
+                PipelinedReader reader = new PipelinedReader(fileReader, this.blockSize);
+                try {
+                    while((window = reader.nextBlock()) != null) {
+                        this.encodeBlock(window, out);
+                        reader.release(window);
+                    }
+                } finally {
+                    reader.close();
+                }
+            } else {
+                this.inputBuffer.clear();
+                while(fileReader.read(this.inputBuffer) != EOFConst) {
+                    this.inputBuffer.flip();
+                    this.encodeBlock(this.inputBuffer, out);
+                    this.inputBuffer.clear();
+                }
+            }
+
+            //the decoder stops after the last symbol, so the last byte is left padded with 0s
+            this.finishSymbols(out);
+            out.close();
+
+            //a file which came out no smaller than it went in is stored as it is instead
+            if(Files.size(Paths.get(this.getCompressedFileName(filename))) >= FileHeader.SIZE + Files.size(Paths.get(filename)))
+                this.storeFile(filename);
+        } catch (IOException e) {
+            System.out.println("Error reading file : exiting.");
+            System.exit(0);
+        }
+
+        //closes the file
+        try {
+            fileReader.close();
+        } catch (IOException e) {
+            System.out.println("Error closing file : exiting");
+            System.exit(0);
+        }
+
+    }
+
+    /**
+     * Compresses the given file in parallel, in chunks of the default size.
+     * @param filename The name of the file to be compressed.
+     */
+    public void encodeParallel(String filename) {
+        this.encodeParallel(filename, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Compresses the given file in parallel. The file is split into chunks which are each compressed with a tree of
+     * their own on a fork join pool, so every chunk can be decompressed independently of the others as well. The
+     * compressed chunks are written in order after the header, followed by an index of the original and compressed
+     * length of each chunk and the number of chunks. A chunk which would not get any smaller is stored as it is.
+     * @param filename The name of the file to be compressed.
+     * @param chunkSize The size in bytes of the chunks.
+     */
+    public void encodeParallel(String filename, int chunkSize) {
+
+        //The reader of the file given to this function.
+        FileChannel fileReader = null;
+
+        if(chunkSize < MIN_CHUNK_SIZE || chunkSize > MAX_CHUNK_SIZE) {
+            System.out.println("Chunk size must be between " + MIN_CHUNK_SIZE + " and " + MAX_CHUNK_SIZE + " bytes. Set to " + DEFAULT_CHUNK_SIZE + " by default.");
+            chunkSize = DEFAULT_CHUNK_SIZE;
+        }
+
+        //Try to initialise the file reader with the given file name.
+        //If there are any problems then exit the program.
+        try {
+            fileReader = this.getFileReader(filename);
+        } catch(IOException e) {
+            System.out.println("File " + filename + " not found. Exiting.");
+            System.exit(0);
+        }
+
+        //the channel of the compressed file
+        FileChannel fileWriter = this.setupOutputFile(filename);
+
+        //the pool the chunks are compressed on, with a thread for each core unless told otherwise
+        ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+
+        //the chunks which have been handed to the pool and not written yet, in the order they are written
+        Queue<ForkJoinTask<byte[]>> chunksInProgress = new ArrayDeque<ForkJoinTask<byte[]>>();
+
+        try {
+            long fileSize = fileReader.size();
+            int chunkCount = (int) ((fileSize + chunkSize - 1) / chunkSize);
+
+            //every chunk is compressed the way the header says
+            FileHeader header = this.makeHeader(FileHeader.CHUNKED_FLAG | FileHeader.STORED_CHUNKS_FLAG, fileSize);
+            FileChannels.writeFully(fileWriter, header.toBuffer());
+
+            //the index of the chunks, which is written after the last chunk
+            ByteBuffer index = ByteBuffer.allocate(chunkCount * CHUNK_INDEX_ENTRY_SIZE + CHUNK_TRAILER_SIZE);
+
+            //the next chunk to hand to the pool
+            int nextChunk = 0;
+
+            for(int chunk = 0; chunk < chunkCount; chunk++) {
+                //keep two chunks for every thread in progress, so the threads stay busy without the whole file being
+                //held in memory
+                while(nextChunk < chunkCount && chunksInProgress.size() < 2 * pool.getParallelism()) {
+                    long position = (long) nextChunk * chunkSize;
+                    chunksInProgress.add(pool.submit(new ChunkEncoder(fileReader, position, (int) Math.min(chunkSize, fileSize - position), header, this.dictionary)));
+                    nextChunk++;
+                }
+
+                //the chunks are written in order, so wait for the oldest one
+                byte[] compressedChunk = chunksInProgress.remove().join();
+
+                index.putInt((int) Math.min(chunkSize, fileSize - (long) chunk * chunkSize));
+                index.putInt(compressedChunk.length);
+                FileChannels.writeFully(fileWriter, ByteBuffer.wrap(compressedChunk));
+            }
+
+            index.putInt(chunkCount);
+            index.flip();
+            FileChannels.writeFully(fileWriter, index);
+
+            fileWriter.close();
+            fileReader.close();
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Error reading file : exiting.");
+            System.exit(0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Compresses the given bytes in memory. The result is laid out just like a compressed file, so it can be written
+     * to a file and decoded by the decoder, or decompressed in memory.
+     * @param data The bytes to compress.
+     * @return The compressed bytes.
+     * @throws IllegalArgumentException If the compressed bytes might not fit in an array.
+     */
+    public byte[] compress(byte[] data) {
+        long bound = this.getMaxCompressedLength(data.length);
+
+        if(bound > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException(data.length + " bytes are too many to compress into an array, compress them into a buffer or a file instead");
+
+        //the destination is big enough for the worst case, so it never has to grow
+        ByteBuffer compressed = ByteBuffer.allocate((int) bound);
+        this.compress(ByteBuffer.wrap(data), compressed);
+
+        return Arrays.copyOf(compressed.array(), compressed.position());
+    }
+
+    /**
+     * Compresses the bytes from the position of one buffer up to its limit into another buffer, in memory. The result
+     * is laid out just like a compressed file. A destination with getMaxCompressedLength bytes remaining is always big
+     * enough. Bytes which would not get any smaller are stored as they are after the header, which they are too if
+     * the compressed bytes do not fit in the destination but the stored bytes do.
+     * @param src The bytes to compress, which are all read, leaving the position of the buffer at its limit.
+     * @param dst The buffer to write the compressed bytes into from its position, which is moved past them.
+     * @return The number of compressed bytes written.
+     * @throws BufferOverflowException If the compressed bytes did not fit in the destination, which is then left
+     * holding part of them.
+     */
+    public int compress(ByteBuffer src, ByteBuffer dst) {
+        //the positions of the buffers before anything was read or written
+        int start = dst.position();
+        int srcStart = src.position();
+
+        //the number of bytes the message takes stored as it is
+        long storedLength = FileHeader.SIZE + src.remaining();
+
+        //every message starts with a tree holding only the NYT node, or the tree of the dictionary, which the decoder
+        //starts with too
+        this.reset();
+
+        //data which is compressed or encrypted already is stored as it is, without coding any of it
+        boolean store = this.looksIncompressible(src);
+
+        if(!store) {
+            try {
+                this.makeHeader(0, src.remaining()).write(dst);
+
+                BitOutputStream out = new BitOutputStream(dst);
+                this.encodeBlock(src, out);
+                this.finishSymbols(out);
+                out.close();
+
+                //bytes which came out no smaller than they went in are stored as they are instead
+                store = dst.position() - start >= storedLength;
+            } catch (IOException e) {
+                //a stream writing into memory has no channel to fail
+                throw new UncheckedIOException(e);
+            } catch (BufferOverflowException e) {
+                //compressed bytes which do not fit are longer than the stored bytes if those fit
+                if(dst.limit() - start < storedLength)
+                    throw e;
+                store = true;
+            }
+        }
+
+        if(store) {
+            dst.position(start);
+            src.position(srcStart);
+
+            new FileHeader(this.numberOfBitsToUse, FileHeader.STORED_FLAG, src.remaining()).write(dst);
+            dst.put(src);
+        }
+
+        return dst.position() - start;
+    }
+
+    /**
+     * Works out exactly how many bytes compressing the given bytes with compress would produce, header included, by
+     * running them through the trees and adding up the lengths of their codes without writing anything. Bytes which
+     * would be stored are counted as stored.
+     * @param src The bytes, from the position of the buffer up to its limit, neither of which are moved.
+     * @return The number of bytes compress would write, given a big enough destination.
+     */
+    public long estimateCompressedLength(ByteBuffer src) {
+        long storedLength = FileHeader.SIZE + src.remaining();
+
+        this.reset();
+
+        if(this.looksIncompressible(src))
+            return storedLength;
+
+        long bits = this.countCodedBits(src.duplicate()) + this.countFinishSymbols();
+
+        return Math.min(this.makeHeader(0, src.remaining()).getSize() + (bits + 7) / 8, storedLength);
+    }
+
+    /**
+     * Works out exactly how many bytes compressing the given file with encode would produce, header included, by
+     * running it through the trees and adding up the lengths of their codes without writing anything. The file is read
+     * a block at a time, so files of any size can be estimated. Files which would be stored are counted as stored.
+     * @param filename The name of the file.
+     * @return The size in bytes of the file encode would write.
+     * @throws IOException If the file could not be read.
+     */
+    public long estimateCompressedLength(String filename) throws IOException {
+        FileChannel fileReader = this.getFileReader(filename);
+
+        try {
+            long storedLength = FileHeader.SIZE + fileReader.size();
+
+            this.reset();
+
+            if(this.looksIncompressible(fileReader))
+                return storedLength;
+
+            if(this.inputBuffer == null) {
+                this.inputBuffer = ByteBuffer.allocateDirect(this.blockSize);
+                this.outputBuffer = ByteBuffer.allocateDirect(this.blockSize);
+            }
+
+            long bits = 0;
+
+            this.inputBuffer.clear();
+            while(fileReader.read(this.inputBuffer) != -1) {
+                this.inputBuffer.flip();
+                bits += this.countCodedBits(this.inputBuffer);
+                this.inputBuffer.clear();
+            }
+
+            bits += this.countFinishSymbols();
+
+            return Math.min(this.makeHeader(0, fileReader.size()).getSize() + (bits + 7) / 8, storedLength);
+        } finally {
+            fileReader.close();
+        }
+    }
+
+    /**
+     * Gets the largest number of bytes that compressing the given number of bytes can produce, header included, so
+     * that destination buffers can be made big enough once. Every symbol costs at most the length of the longest code
+     * the tree can have, and the symbols which are new to the tree cost their own bits as well.
+     * <p>
+     * No code is longer than the number of symbols in the alphabet. Codes are also limited by the weights in the tree:
+     * the weight of each node on the path up from a leaf is at least the sum of the weights of the two nodes below it,
+     * so a tree with a leaf d levels down weighs at least the (d + 1)th Fibonacci number. Bytes which would come out
+     * any longer than that are stored as they are after a header instead.
+     * @param originalLength The number of bytes to compress.
+     * @param symbolBits The number of bits in each symbol.
+     * @return The largest possible number of compressed bytes.
+     */
+    public static long maxCompressedLength(long originalLength, int symbolBits) {
+        return maxCompressedLength(originalLength, symbolBits, 0, FileHeader.SIZE, 1L << symbolBits);
+    }
+
+    /**
+     * Gets the largest number of bytes that compressing the given number of bytes with this encoder can produce,
+     * header included, allowing for its number of bits in each symbol, its dictionary, its rescale threshold and its
+     * window. Rescaling and windows only ever make the tree lighter, so they cannot make the codes longer than they
+     * could be without them, but a symbol which has left the window has to be sent in full again when it comes back.
+     * With order 1 contexts, no tree is heavier than the one tree would be, but each symbol can be new once in every
+     * context.
+     * @param originalLength The number of bytes to compress.
+     * @return The largest possible number of compressed bytes.
+     */
+    public long getMaxCompressedLength(long originalLength) {
+        int headerSize = this.makeHeader(0, originalLength).getSize();
+        long startingWeight = this.dictionary != null ? this.dictionary.getTotalWeight() : 0;
+
+        //symbols which leave the window can be new any number of times, and each context has its own new symbols
+        long alphabetSize = 1L << this.numberOfBitsToUse;
+        long newSymbolLimit = this.getWindowSize() != AdaptiveHuffmanTree.NO_WINDOW ? Long.MAX_VALUE
+                : this.contextTrees != null ? alphabetSize * alphabetSize : alphabetSize;
+
+        return maxCompressedLength(originalLength, this.numberOfBitsToUse, startingWeight, headerSize, newSymbolLimit);
+    }
+
+    /**
+     * Gets the largest number of bytes that compressing the given number of bytes with a dictionary can produce,
+     * header included. The tree of the dictionary is heavier than a new tree, so its codes can be longer.
+     * @param originalLength The number of bytes to compress.
+     * @param dictionary The dictionary the encoder starts from.
+     * @return The largest possible number of compressed bytes.
+     */
+    public static long maxCompressedLength(long originalLength, Dictionary dictionary) {
+        return maxCompressedLength(originalLength, dictionary.getSymbolBits(), dictionary.getTotalWeight(), FileHeader.SIZE + FileHeader.DICTIONARY_ID_SIZE, 1L << dictionary.getSymbolBits());
+    }
+
+    /**
+     * Gets the largest number of bytes that compressing the given number of bytes can produce.
+     * @param originalLength The number of bytes to compress.
+     * @param symbolBits The number of bits in each symbol.
+     * @param startingWeight The weight of the tree before the first symbol.
+     * @param headerSize The size of the header in bytes.
+     * @param newSymbolLimit The most symbols which can be new to the tree they are coded with, and so sent in full.
+     * @return The largest possible number of compressed bytes.
+     */
+    private static long maxCompressedLength(long originalLength, int symbolBits, long startingWeight, int headerSize, long newSymbolLimit) {
+        //the number of symbols, counting a last partial symbol, and the number of symbols in the alphabet
+        long symbols = (originalLength * 8 + symbolBits - 1) / symbolBits;
+        long alphabetSize = 1L << symbolBits;
+
+        //the weight of the tree when the last symbol is encoded
+        long weight = startingWeight + symbols - 1;
+
+        //the deepest a leaf can be in a tree of that weight, found by walking up the Fibonacci numbers.
+        //the code of the NYT node is a single bit when it is the root
+        int depth = 1;
+        long fibonacci = 1, nextFibonacci = 2;
+        while(nextFibonacci <= weight && depth < alphabetSize) {
+            long sum = fibonacci + nextFibonacci;
+            fibonacci = nextFibonacci;
+            nextFibonacci = sum;
+            depth++;
+        }
+
+        long bits = symbols * depth + Math.min(symbols, newSymbolLimit) * symbolBits;
+
+        //bytes which would not get any smaller are stored as they are
+        return Math.min(headerSize + (bits + 7) / 8, FileHeader.SIZE + originalLength);
+    }
+
+    /**
+     * Makes the header of a file or message compressed by this encoder.
+     * @param flags The flags of the file, apart from the ones the encoder's settings decide.
+     * @param originalLength The length in bytes of the original file.
+     * @return The header.
+     */
+    private FileHeader makeHeader(int flags, long originalLength) {
+        if(this.contextTrees != null)
+            flags |= FileHeader.CONTEXT_FLAG;
+
+        return FileHeader.of(this.numberOfBitsToUse, flags, originalLength, this.dictionary, this.tree);
+    }
+
+    /**
+     * Encodes every character left in the given block of the input.
+     * @param block The block of characters to encode.
+     * @param out The stream to write the encoding to.
+     * @throws IOException If the encoding could not be written.
+     */
+    private void encodeBlock(ByteBuffer block, BitOutputStream out) throws IOException {
+        while(block.hasRemaining()) {
+            this.encodeChar(block.get() & 0xff, out);
+        }
+    }
+
+    /**
+     * Encodes a single character, one symbol at a time. The bits of the character are added to the end of the bits
+     * left over from the characters before it, and every complete symbol is taken from the front of them.
+     * @param charToEncode The character to encode.
+     * @param out The stream to write the encoding to.
+     * @throws IOException If the encoding could not be written.
+     */
+    void encodeChar(int charToEncode, BitOutputStream out) throws IOException {
+        //a character is a symbol of its own when symbols are 8 bits
+        if(this.numberOfBitsToUse == 8) {
+            this.outputHuffmanCode(charToEncode, out);
+            return;
+        }
+
+        this.pendingBits = (this.pendingBits << 8) | charToEncode;
+        this.pendingBitCount += 8;
+
+        //write the encoding of each complete symbol from the Huffman tree to the output
+        while(this.pendingBitCount >= this.numberOfBitsToUse) {
+            this.pendingBitCount -= this.numberOfBitsToUse;
+            this.outputHuffmanCode((this.pendingBits >>> this.pendingBitCount) & this.getSymbolMask(), out);
+        }
+    }
+
+    /**
+     * Encodes the bits left over at the end of the input, which are too few to make a whole symbol, as a last symbol
+     * padded with 0s. The decoder drops the padding as it knows the length of the original input.
+     * @param out The stream to write the encoding to.
+     * @throws IOException If the encoding could not be written.
+     */
+    void finishSymbols(BitOutputStream out) throws IOException {
+        if(this.pendingBitCount > 0) {
+            this.outputHuffmanCode((this.pendingBits << (this.numberOfBitsToUse - this.pendingBitCount)) & this.getSymbolMask(), out);
+            this.pendingBitCount = 0;
+        }
+    }
+
+    /**
+     * Runs the symbols of a block through the trees just as encodeBlock does, without writing anything, and counts the
+     * bits their codes would take. Bits left over after the last whole symbol are kept for the next block.
+     * @param block The block of characters, which are all read.
+     * @return The number of bits the codes of the symbols would take.
+     */
+    long countCodedBits(ByteBuffer block) {
+        long bits = 0;
+
+        //a character is a symbol of its own when symbols are 8 bits
+        if(this.numberOfBitsToUse == 8) {
+            while(block.hasRemaining())
+                bits += this.countHuffmanCode(block.get() & 0xff);
+            return bits;
+        }
+
+        while(block.hasRemaining()) {
+            this.pendingBits = (this.pendingBits << 8) | (block.get() & 0xff);
+            this.pendingBitCount += 8;
+
+            while(this.pendingBitCount >= this.numberOfBitsToUse) {
+                this.pendingBitCount -= this.numberOfBitsToUse;
+                bits += this.countHuffmanCode((this.pendingBits >>> this.pendingBitCount) & this.getSymbolMask());
+            }
+        }
+
+        return bits;
+    }
+
+    /**
+     * Counts the bits the last symbol would take when the bits left over at the end of the input are padded with 0s,
+     * just as finishSymbols does, without writing anything.
+     * @return The number of bits the encoding of the last symbol would take, or 0 if no bits are left over.
+     */
+    private int countFinishSymbols() {
+        if(this.pendingBitCount == 0)
+            return 0;
+
+        int bits = this.countHuffmanCode((this.pendingBits << (this.numberOfBitsToUse - this.pendingBitCount)) & this.getSymbolMask());
+        this.pendingBitCount = 0;
+
+        return bits;
+    }
+
+    /**
+     * Ends the encoding of a stream, which has no header to record the original length in. The bits left over are
+     * encoded as a last symbol padded with 0s, and if the last byte is not yet complete, then it is filled with an NYT
+     * buffer, which the decoder runs out of input part of the way through.
+     * <p>
+     * Symbols of other than 8 bits could be padded with a whole byte, and the NYT buffer could hold a whole symbol
+     * after the code of the NYT node, so their last symbol is followed by the number of padding bits and then by an
+     * end marker: the code of the NYT node followed by that number again, which is never sent otherwise as the tree
+     * already has it.
+     * @param out The stream the encoding was written to.
+     * @throws IOException If the encoding could not be written.
+     */
+    void finishEncoding(BitOutputStream out) throws IOException {
+        if(this.numberOfBitsToUse != 8) {
+            int paddingBits = (this.numberOfBitsToUse - this.pendingBitCount) % this.numberOfBitsToUse;
+            this.finishSymbols(out);
+            this.outputHuffmanCode(paddingBits, out);
+
+            AdaptiveHuffmanTree codingTree = this.getCodingTree();
+            out.writeBits(codingTree.getHuffmanCode(AdaptiveHuffmanTree.NYT), codingTree.getHuffmanCodeLength(AdaptiveHuffmanTree.NYT));
+            out.writeBits(paddingBits, this.numberOfBitsToUse);
+        }
+
+        int bitsLeftInByte = out.getBitsToByteBoundary();
+        out.writeBits(this.getNYTBuffer(bitsLeftInByte), bitsLeftInByte);
+    }
+
+    /**
+     * Opens a channel to read the file with the given file name and returns it.
+     * @param filename The name of the file to be read.
+     * @return A FileChannel of the file to be read.
+     * @throws IOException If the given file name does not correspond to a file that can be read then
+     * this exception is thrown.
+     */
+    private FileChannel getFileReader(String filename) throws IOException {
+        return FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+    }
+
+    /**
+     * Writes the Huffman encoding of the given symbol and updates the encoder's tree with it.
+     * @param symbol The symbol to be encoded and added to the tree.
+     * @param out The stream to write the encoding to.
+     * @throws IOException If the encoding could not be written.
+     */
+    private void outputHuffmanCode(int symbol, BitOutputStream out) throws IOException {
+
+        //the tree the symbol is coded with
+        AdaptiveHuffmanTree codingTree = this.getCodingTree();
+
+        //if the symbol is new then send the code of the NYT node followed by the symbol itself,
+        //otherwise send the code of the symbol
+        if(!codingTree.symbolExists(symbol)) {
+            out.writeBits(codingTree.getHuffmanCode(AdaptiveHuffmanTree.NYT), codingTree.getHuffmanCodeLength(AdaptiveHuffmanTree.NYT));
+            out.writeBits(symbol, this.numberOfBitsToUse);
+        } else {
+            out.writeBits(codingTree.getHuffmanCode(symbol), codingTree.getHuffmanCodeLength(symbol));
+        }
+
+        //update tree
+        codingTree.addCharToTree(symbol);
+
+        //the next symbol is coded with the tree of this one
+        if(this.contextTrees != null)
+            this.contextTrees.setContext(symbol);
+    }
+
+    /**
+     * Updates the encoder's tree with the given symbol just as outputHuffmanCode does, without writing its encoding.
+     * @param symbol The symbol to be added to the tree.
+     * @return The number of bits the encoding of the symbol would take.
+     */
+    private int countHuffmanCode(int symbol) {
+        AdaptiveHuffmanTree codingTree = this.getCodingTree();
+
+        //a new symbol is sent in full after the code of the NYT node
+        int length = codingTree.symbolExists(symbol) ? codingTree.getHuffmanCodeLength(symbol)
+                : codingTree.getHuffmanCodeLength(AdaptiveHuffmanTree.NYT) + this.numberOfBitsToUse;
+
+        codingTree.addCharToTree(symbol);
+
+        if(this.contextTrees != null)
+            this.contextTrees.setContext(symbol);
+
+        return length;
+    }
+
+    /**
+     * Gets the tree the next symbol is coded with.
+     * @return The tree of the context of the next symbol with order 1 contexts, otherwise the tree.
+     */
+    private AdaptiveHuffmanTree getCodingTree() {
+        return this.contextTrees != null ? this.contextTrees.getTree() : this.tree;
+    }
+
+
+    private FileChannel setupOutputFile(String absolouteFileName){
+
+        String compressedFileName = this.getCompressedFileName(absolouteFileName);
+
+        //The channel of the given file name
+        FileChannel fout = null;
+
+        //create new file from file name, replacing any file already there
+        try {
+            fout = FileChannel.open(Paths.get(compressedFileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("Error creating new file " + compressedFileName + " : exiting");
+            System.exit(0);
+        }
+
+        return fout;
+    }
+
+    /**
+     * Gets the name of the compressed file of the given file.
+     * @param absolouteFileName The absolute name of the file to be compressed.
+     * @return The name of the compressed file, which is in the same directory.
+     */
+    private String getCompressedFileName(String absolouteFileName) {
+        String path = absolouteFileName.substring(0, absolouteFileName.lastIndexOf("/"));
+        //retrieve the raw file name by removing everything before the absoloute filname
+        String filename = absolouteFileName.substring(absolouteFileName.lastIndexOf("/") + 1);
+        //The original file name split into the parts before and after the first "." so that the "compressed" file name part
+        //can be inserted
+        String[] compressedFileNameComps = filename.split("\\.", 2);
+
+        //The compressed file name, made up of the file name components from the original file name and the compressed
+        //file path keyword added
+        return path + "/" + compressedFileNameComps[0] + ".compressed" + this.numberOfBitsToUse +"." + compressedFileNameComps[1];
+    }
+
+    /**
+     * Writes the given file to its compressed file as it is, after a header which marks it as stored, replacing
+     * anything already written there. The file is read through a channel of its own, as the channel it was
+     * compressed through may have been closed.
+     * @param filename The name of the file.
+     * @throws IOException If the file could not be read or the compressed file could not be written.
+     */
+    private void storeFile(String filename) throws IOException {
+        FileChannel fileReader = this.getFileReader(filename);
+        FileChannel fileWriter = this.setupOutputFile(filename);
+        long length = fileReader.size();
+
+        FileChannels.writeFully(fileWriter, new FileHeader(this.numberOfBitsToUse, FileHeader.STORED_FLAG, length).toBuffer());
+        FileChannels.transferFully(fileReader, 0, length, fileWriter);
+
+        fileWriter.close();
+        fileReader.close();
+    }
+
+    /**
+     * Estimates whether the given file is too random to get any smaller by being compressed, from samples spread over
+     * it, without moving the position of its channel.
+     * @param fileReader The channel of the file.
+     * @return True if the file is very unlikely to get any smaller.
+     * @throws IOException If the file could not be read.
+     * @see #looksIncompressible(ByteBuffer)
+     */
+    private boolean looksIncompressible(FileChannel fileReader) throws IOException {
+        if(!this.codesFollowSymbolCounts() || fileReader.size() / SAMPLE_COUNT < MIN_SAMPLE_SIZE)
+            return false;
+
+        //the samples are read one after another, so that they are the same samples the buffer is checked with
+        ByteBuffer samples = ByteBuffer.allocate(SAMPLE_COUNT * SAMPLE_SIZE);
+        FileChannels.readSamples(fileReader, samples, SAMPLE_COUNT);
+
+        return this.looksIncompressible(samples);
+    }
+
+    /**
+     * Estimates whether the given bytes are too random to get any smaller by being compressed, as data which is
+     * compressed or encrypted already is, from the entropy of the symbols in a sample from the start of each of equal
+     * parts of the bytes. The bytes only look too random if every sample does, so data which would compress in some
+     * places is always compressed.
+     * @param data The bytes, from the position of the buffer up to its limit, neither of which are moved.
+     * @return True if the bytes are very unlikely to get any smaller.
+     */
+    private boolean looksIncompressible(ByteBuffer data) {
+        int partLength = data.remaining() / SAMPLE_COUNT;
+        int sampleLength = Math.min(partLength, SAMPLE_SIZE);
+
+        if(!this.codesFollowSymbolCounts() || sampleLength < MIN_SAMPLE_SIZE)
+            return false;
+
+        //the number of times each symbol comes up in a sample
+        int[] counts = new int[1 << this.numberOfBitsToUse];
+
+        for(int i = 0; i < SAMPLE_COUNT; i++) {
+            int start = data.position() + i * partLength;
+            if(this.getSymbolEntropy(data, start, start + sampleLength, counts) < INCOMPRESSIBLE_ENTROPY * this.numberOfBitsToUse)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks whether the codes of the encoder only depend on how often each symbol has come up, and its symbols are
+     * narrow enough to sample, so that the entropy of samples tells how well data compresses. Trees which follow the
+     * recent data or the symbol before can compress data whose symbols come up equally often as a whole.
+     * @return True if data can be sampled to find out whether it compresses.
+     */
+    private boolean codesFollowSymbolCounts() {
+        return this.numberOfBitsToUse <= MAX_SAMPLED_SYMBOL_BITS && this.contextTrees == null
+                && this.getRescaleThreshold() == AdaptiveHuffmanTree.NO_RESCALING && this.getWindowSize() == AdaptiveHuffmanTree.NO_WINDOW;
+    }
+
+    /**
+     * Measures the entropy of the symbols in part of a buffer, which is the fewest bits per symbol any code fitted to
+     * how often each symbol comes up there could take. Bits left over after the last whole symbol are ignored.
+     * @param data The buffer, whose position is not moved.
+     * @param start The index of the first byte of the part.
+     * @param end The index after the last byte of the part.
+     * @param counts An array with an entry for every symbol, which is overwritten.
+     * @return The entropy in bits per symbol.
+     */
+    private double getSymbolEntropy(ByteBuffer data, int start, int end, int[] counts) {
+        Arrays.fill(counts, 0);
+
+        //the bits not counted yet, held in the lowest bits, the number of them and the number of symbols counted
+        int bits = 0, bitCount = 0, symbols = 0;
+
+        for(int i = start; i < end; i++) {
+            bits = (bits << 8) | (data.get(i) & 0xff);
+            bitCount += 8;
+
+            while(bitCount >= this.numberOfBitsToUse) {
+                bitCount -= this.numberOfBitsToUse;
+                counts[(bits >>> bitCount) & this.getSymbolMask()]++;
+                symbols++;
+            }
+        }
+
+        double entropy = 0;
+        for(int count : counts) {
+            if(count > 0) {
+                double probability = (double) count / symbols;
+                entropy -= probability * Math.log(probability);
+            }
+        }
+
+        return entropy / Math.log(2);
+    }
+
+    /**
+     * Gets the mask which selects the lowest symbol of a group of bits.
+     * @return The mask, with a 1 for each bit of a symbol.
+     */
+    private int getSymbolMask() {
+        return (1 << this.numberOfBitsToUse) - 1;
+    }
+
+    /**
+     * For the last byte in the file where it may not have 8 complete bits from reading the entire file,
+     * add the route to the NYT node to the end of the byte so that the decoder will start an NYT cycle at the end
+     * instead of trying to read in anything else, so that it all reads correctly.
+     * @param size the size left at the end of the byte needed
+     * @return a buffer of the size given to add to the end of the last byte
+     */
+    public long getNYTBuffer(int size) {
+        AdaptiveHuffmanTree codingTree = this.getCodingTree();
+        long result = codingTree.getHuffmanCode(AdaptiveHuffmanTree.NYT);
+        int length = codingTree.getHuffmanCodeLength(AdaptiveHuffmanTree.NYT);
+
+        //cut the end off the route if it is too long, or fill the rest of the buffer with 0s if it is too short
+        if(size < length) {
+            result >>>= length - size;
+        } else {
+            result <<= size - length;
+        }
+
+        return result;
+    }
+
+    public void printTree() {
+        new TreePrinter().printTree(this.tree);
+        System.out.println("\n\n\n\n\n");
+    }
+
+    /**
+     * Compresses one chunk of a file with a tree of its own.
+     */
+    private static class ChunkEncoder extends RecursiveTask<byte[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The channel of the file the chunk is read from.
+         */
+        private final FileChannel fileReader;
+
+        /**
+         * The position of the chunk in the file and its length in bytes.
+         */
+        private final long position;
+        private final int length;
+
+        /**
+         * The header of the file, which says how every chunk is compressed.
+         */
+        private final FileHeader header;
+
+        /**
+         * The dictionary the chunk starts from, or null if it starts from only the NYT node.
+         */
+        private final Dictionary dictionary;
+
+        ChunkEncoder(FileChannel fileReader, long position, int length, FileHeader header, Dictionary dictionary) {
+            this.fileReader = fileReader;
+            this.position = position;
+            this.length = length;
+            this.header = header;
+            this.dictionary = dictionary;
+        }
+
+        /**
+         * Reads the chunk and compresses it, or stores it if it would not get any smaller.
+         * @return The compressed chunk, or the chunk as it is if it is stored.
+         */
+        @Override
+        protected byte[] compute() {
+            //the encoder of the chunk, with a new tree
+            AdaptiveHuffmanEncoder encoder = this.dictionary != null ? new AdaptiveHuffmanEncoder(this.dictionary) : new AdaptiveHuffmanEncoder(this.header.getSymbolBits());
+            encoder.setRescaleThreshold(this.header.getRescaleThreshold());
+            encoder.setWindowSize(this.header.getWindowSize());
+            encoder.setOrder1Contexts(this.header.usesOrder1Contexts());
+
+            //the chunk as it is read from the file
+            ByteBuffer chunk = ByteBuffer.allocate(this.length);
+
+            //the compressed chunk, which is usually smaller than the chunk
+            ByteArrayOutputStream compressedChunk = new ByteArrayOutputStream(this.length / 2 + 16);
+
+            try {
+                FileChannels.readFully(this.fileReader, chunk, this.position);
+                chunk.flip();
+
+                //a chunk which is compressed or encrypted already is stored as it is, without coding any of it
+                if(encoder.looksIncompressible(chunk))
+                    return chunk.array();
+
+                BitOutputStream out = new BitOutputStream(compressedChunk);
+                encoder.encodeBlock(chunk, out);
+                encoder.finishSymbols(out);
+
+                //the decoder stops at the original length of the chunk, so the last byte is left padded with 0s
+                out.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            //a chunk which came out no smaller than it went in is stored as it is, which the decoder tells from its
+            //compressed length being the same as its original length
+            if(compressedChunk.size() >= this.length)
+                return chunk.array();
+
+            return compressedChunk.toByteArray();
+        }
+    }
+
+}
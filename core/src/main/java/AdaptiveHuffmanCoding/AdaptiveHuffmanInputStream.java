@@ -0,0 +1,249 @@
+package AdaptiveHuffmanCoding;
+
+import AdaptiveHuffmanCoding.BitStreams.BitInputStream;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream which reads data compressed with Adaptive Huffman Encoding from another input stream and
+ * decompresses it as it is read. Only a fixed size buffer of the compressed data is held at any time.
+ */
+public class AdaptiveHuffmanInputStream extends FilterInputStream {
+
+    /**
+     * The decoder which holds the tree used for the decompression.
+     */
+    private final AdaptiveHuffmanDecoder decoder;
+
+    /**
+     * The stream the encoded bits are read from, which reads from the underlying stream.
+     */
+    private final BitInputStream bitStream;
+
+    /**
+     * The number of bits in each symbol.
+     */
+    private final int symbolBits;
+
+    /**
+     * The decoded bits which have not made up a whole byte yet, held in the lowest bits, and the number of them.
+     */
+    private int pendingBits, pendingBitCount;
+
+    /**
+     * The last two symbols decoded, oldest first, which are held back with symbols of other than 8 bits until the next
+     * one is decoded, as the last two before the end marker are the padded last symbol and the number of bits it was
+     * padded with. -1 where there is none.
+     */
+    private int olderHeldSymbol = -1, newerHeldSymbol = -1;
+
+    /**
+     * Whether the end of the compressed data has been reached.
+     */
+    private boolean endOfStream;
+
+    /**
+     * Constructs a stream which decompresses data compressed with 8 bit tree node representation.
+     * @param in The stream to read the compressed data from.
+     */
+    public AdaptiveHuffmanInputStream(InputStream in) {
+        this(in, 8);
+    }
+
+    /**
+     * Constructs a stream which decompresses data compressed with the given tree node representation, which must be
+     * the one the data was compressed with.
+     * @param in The stream to read the compressed data from.
+     * @param symbolBits The number of bits from a byte the data used for each value handed to the tree.
+     */
+    public AdaptiveHuffmanInputStream(InputStream in, int symbolBits) {
+        super(in);
+
+        //the same width as an output stream given the same number falls back to
+        if(symbolBits < 1 || symbolBits > AdaptiveHuffmanEncoder.MAX_SYMBOL_BITS){
+            System.out.println("Number of bits to use value is not between 1 and " + AdaptiveHuffmanEncoder.MAX_SYMBOL_BITS + ". Set to 8 by default.");
+            symbolBits = 8;
+        }
+
+        this.symbolBits = symbolBits;
+        this.decoder = new AdaptiveHuffmanDecoder();
+        this.decoder.setSymbolBits(symbolBits);
+        this.bitStream = new BitInputStream(in);
+    }
+
+    /**
+     * Makes the tree halve its weights whenever the weight of its root reaches the given threshold, which must be the
+     * threshold the data was compressed with. It should be set before anything is read.
+     * @param rescaleThreshold The weight of the root at which the weights are halved, at least 2, or
+     *                         AdaptiveHuffmanTree.NO_RESCALING to never rescale.
+     * @throws IllegalArgumentException If the threshold is below 2 and is not NO_RESCALING.
+     * @throws IllegalStateException If the stream keeps a window.
+     */
+    public void setRescaleThreshold(int rescaleThreshold) {
+        this.decoder.setRescaleThreshold(rescaleThreshold);
+    }
+
+    /**
+     * Makes the tree hold only the given number of most recent symbols, which must be the window size the data was
+     * compressed with. It should be set before anything is read.
+     * @param windowSize The number of symbols in the window, between 1 and AdaptiveHuffmanTree.MAX_WINDOW_SIZE, or
+     *                   AdaptiveHuffmanTree.NO_WINDOW to keep every symbol.
+     * @throws IllegalArgumentException If the window size is out of range.
+     * @throws IllegalStateException If the stream rescales its weights.
+     */
+    public void setWindowSize(int windowSize) {
+        this.decoder.setWindowSize(windowSize);
+    }
+
+    /**
+     * Reads a single decompressed byte.
+     * @return The byte, or -1 if the end of the compressed data has been reached.
+     * @throws IOException If the compressed data could not be read.
+     */
+    @Override
+    public int read() throws IOException {
+        //symbols are decoded until they make up a whole byte, as they may not line up with bytes
+        while(this.pendingBitCount < 8) {
+            if(this.endOfStream)
+                return -1;
+            this.decodeNextSymbol();
+        }
+
+        this.pendingBitCount -= 8;
+        return (this.pendingBits >>> this.pendingBitCount) & 0xff;
+    }
+
+    /**
+     * Decodes the next symbol and adds its bits to the pending bits, or reaches the end of the compressed data. Padding
+     * of the last symbol which is shorter than a byte never makes up a byte, so it is left in the pending bits.
+     * @throws IOException If the compressed data could not be read or is damaged.
+     */
+    private void decodeNextSymbol() throws IOException {
+        int symbol = this.decoder.decodeSymbol(this.bitStream);
+
+        if(symbol < 0) {
+            this.endOfStream = true;
+
+            //the newer symbol held back is the number of bits the older one, the last symbol, was padded with, which
+            //are dropped. There is no last symbol if nothing was compressed
+            if(this.symbolBits != 8) {
+                if(this.newerHeldSymbol < 0 || this.newerHeldSymbol >= this.symbolBits)
+                    throw new IOException("Compressed data is damaged");
+
+                if(this.olderHeldSymbol >= 0)
+                    this.addSymbolBits(this.olderHeldSymbol);
+
+                if(this.newerHeldSymbol > this.pendingBitCount)
+                    throw new IOException("Compressed data is damaged");
+
+                this.pendingBits >>>= this.newerHeldSymbol;
+                this.pendingBitCount -= this.newerHeldSymbol;
+            }
+            return;
+        }
+
+        //each symbol is only added once the two after it show that it is neither the last symbol nor the number of
+        //padding bits
+        if(this.symbolBits != 8) {
+            int oldestSymbol = this.olderHeldSymbol;
+            this.olderHeldSymbol = this.newerHeldSymbol;
+            this.newerHeldSymbol = symbol;
+
+            if(oldestSymbol < 0)
+                return;
+            symbol = oldestSymbol;
+        }
+
+        this.addSymbolBits(symbol);
+    }
+
+    /**
+     * Adds the bits of a decoded symbol to the end of the pending bits.
+     * @param symbol The symbol.
+     */
+    private void addSymbolBits(int symbol) {
+        this.pendingBits = (this.pendingBits << this.symbolBits) | symbol;
+        this.pendingBitCount += this.symbolBits;
+    }
+
+    /**
+     * Reads decompressed bytes into part of an array.
+     * @param b The array to read the bytes into.
+     * @param off The index of the array to start putting bytes at.
+     * @param len The largest number of bytes to read.
+     * @return The number of bytes read, or -1 if the end of the compressed data has been reached.
+     * @throws IOException If the compressed data could not be read.
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if(off < 0 || len < 0 || off + len > b.length)
+            throw new IndexOutOfBoundsException();
+
+        if(len == 0)
+            return 0;
+
+        //the number of bytes read so far and the byte that was just read
+        int bytesRead = 0, nextByte;
+
+        while(bytesRead < len && (nextByte = this.read()) >= 0) {
+            b[off + bytesRead++] = (byte) nextByte;
+        }
+
+        return bytesRead == 0 ? -1 : bytesRead;
+    }
+
+    /**
+     * Skips over decompressed bytes by decompressing and discarding them.
+     * @param n The number of bytes to skip.
+     * @return The number of bytes that were skipped.
+     * @throws IOException If the compressed data could not be read.
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+
+        while(skipped < n && this.read() >= 0) {
+            skipped++;
+        }
+
+        return skipped;
+    }
+
+    /**
+     * The number of decompressed bytes cannot be known without decompressing them.
+     * @return 0
+     */
+    @Override
+    public int available() {
+        return 0;
+    }
+
+    /**
+     * Marking is not supported.
+     * @return false
+     */
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /**
+     * Closes the underlying stream.
+     * @throws IOException If the stream could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        this.bitStream.close();
+    }
+}
@@ -0,0 +1,1521 @@
+package AdaptiveHuffmanCoding.AdaptiveHuffmanNodes;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Adaptive Huffman tree held in parallel primitive arrays rather than as a graph of node objects.
+ * Every node is referred to by its node number, which is also its index into each of the arrays. The root always has
+ * the highest node number and the NYT node the lowest. Swapping two nodes only exchanges what is stored at their two
+ * numbers, so a node number always describes the same position in the tree and nothing is allocated once the tree has
+ * been constructed.
+ * <p>
+ * A tree can also be made with room for only a few symbols, for when many trees are kept at once and most of them
+ * only ever see a few symbols. Its arrays are doubled whenever the NYT node runs out of room below it, and every node
+ * number is moved up by the same amount so that the root keeps the highest one.
+ *
+ * Created by bh59 on 22/09/16.
+ */
+public class AdaptiveHuffmanTree {
+
+    /**
+     * Value used in place of a node number or a symbol where there is none, e.g. the parent of the root.
+     */
+    public static final int NONE = -1;
+
+    /**
+     * The symbol used to refer to the NYT node, e.g. when asking the tree for the Huffman code of the NYT node.
+     */
+    public static final int NYT = -2;
+
+    /**
+     * The rescale threshold of a tree which never rescales its weights.
+     */
+    public static final int NO_RESCALING = 0;
+
+    /**
+     * The window size of a tree which keeps every symbol it has seen.
+     */
+    public static final int NO_WINDOW = 0;
+
+    /**
+     * The largest window a tree can keep, which keeps the weight of the root well within an int.
+     */
+    public static final int MAX_WINDOW_SIZE = 1 << 30;
+
+    /**
+     * The number of symbols the window has room for when it is made. It grows as it fills, up to the window size.
+     */
+    private static final int INITIAL_WINDOW_CAPACITY = 4096;
+
+    /**
+     * The number of bits in each symbol held by the tree.
+     */
+    private final int symbolBits;
+
+    /**
+     * The weight (frequency) of each node.
+     */
+    private int[] weight;
+
+    /**
+     * The node number of the parent of each node.
+     */
+    private int[] parent;
+
+    /**
+     * The node number of the left child of each node.
+     */
+    private int[] leftChild;
+
+    /**
+     * The node number of the right child of each node.
+     */
+    private int[] rightChild;
+
+    /**
+     * The symbol held by each node. Internal nodes hold NONE and the NYT node holds NYT.
+     */
+    private int[] symbol;
+
+    /**
+     * Maps each possible symbol to the node number of the leaf which holds it, or NONE if it has not been seen yet.
+     * Allows an O(1) check for whether a symbol is in the tree and an O(1) lookup of its leaf.
+     */
+    private final int[] symbolIndex;
+
+    /**
+     * The Huffman code of each node, with the first bit of the code being the most significant, and the number of
+     * bits in it. Kept up to date as the tree changes so that a code never has to be worked out when it is needed.
+     * Codes are at most 64 bits long, which holds while the weight of the root fits in an int.
+     */
+    private long[] code;
+    private int[] codeLength;
+
+    /**
+     * Space for the nodes still to be visited while the codes of a subtree are updated, and for the leaves while the
+     * tree is rebuilt by a rescale. Nothing is kept in it between calls, so trees which are only ever used one at a
+     * time, such as the trees of the contexts, can share one big enough for a full tree.
+     */
+    private int[] nodeStack;
+
+    /**
+     * The weight group (block) each node belongs to. Nodes of the same weight have consecutive node numbers, so each
+     * block is a range of node numbers, and the leader of a block is the node with the highest number in it. The root
+     * and the NYT node are not in any block and hold NONE.
+     */
+    private int[] block;
+
+    /**
+     * The highest and lowest node numbers in each block.
+     */
+    private int[] blockLeader, blockLowest;
+
+    /**
+     * The first of the block numbers which are not in use, or NONE if every block is in use. A block which is not in
+     * use has no leader, so its entry of blockLeader holds the next block number which is not in use instead.
+     */
+    private int firstFreeBlock;
+
+    /**
+     * The node number of the root node of the tree.
+     * The node number of the NYT node of the tree.
+     */
+    private int root, NYTNode;
+
+    /**
+     * The weight of the root at which the weights are rescaled, or NO_RESCALING if they never are.
+     */
+    private int rescaleThreshold = NO_RESCALING;
+
+    /**
+     * The number of most recent symbols the tree is made of, or NO_WINDOW if it keeps every symbol it has seen.
+     */
+    private int windowSize = NO_WINDOW;
+
+    /**
+     * The most recent symbols in the order they were added, as a ring starting at the oldest, and the number of them.
+     * Symbols are at most 16 bits, so each fits in a char. The ring only starts to wrap around once it is full, so
+     * until then it starts at 0 and can grow by being copied.
+     */
+    private char[] window;
+    private int windowStart, windowCount;
+
+    /**
+     * The lookup table over the top levels of the tree, told about every node whose children change, if there is one.
+     */
+    private DecodingTable decodingTable;
+
+    /**
+     * Constructs a tree for 8 bit symbols.
+     */
+    public AdaptiveHuffmanTree() {
+        this(8);
+    }
+
+    /**
+     * Constructs tree by adding NYT node to it.
+     * @param symbolBits The number of bits in each symbol that will be added to the tree.
+     */
+    public AdaptiveHuffmanTree(int symbolBits) {
+        this(symbolBits, 1 << symbolBits);
+    }
+
+    /**
+     * Constructs a tree with room for only the given number of symbols to begin with, which grows as more symbols are
+     * added.
+     * @param symbolBits The number of bits in each symbol that will be added to the tree.
+     * @param symbolCapacity The number of symbols the tree has room for before it has to grow, which is at most the
+     *                       number of symbols in the alphabet.
+     */
+    public AdaptiveHuffmanTree(int symbolBits, int symbolCapacity) {
+        this(symbolBits, symbolCapacity, null);
+    }
+
+    /**
+     * Constructs a tree with room for only the given number of symbols to begin with, which shares its space for
+     * updating codes and rescaling with other trees. The trees must only ever be used one at a time.
+     * @param symbolBits The number of bits in each symbol that will be added to the tree.
+     * @param symbolCapacity The number of symbols the tree has room for before it has to grow, which is at most the
+     *                       number of symbols in the alphabet.
+     * @param sharedNodeStack The space to share, with room for every node of a full tree, or null for the tree to
+     *                        have space of its own.
+     */
+    AdaptiveHuffmanTree(int symbolBits, int symbolCapacity, int[] sharedNodeStack) {
+        //number of different symbols the tree may have to hold
+        int alphabetSize = 1 << symbolBits;
+
+        if(symbolCapacity < 1 || symbolCapacity > alphabetSize)
+            throw new IllegalArgumentException("Symbol capacity must be between 1 and " + alphabetSize);
+
+        if(sharedNodeStack != null && sharedNodeStack.length < 2 * alphabetSize + 1)
+            throw new IllegalArgumentException("Shared node stack must have room for " + (2 * alphabetSize + 1) + " nodes");
+
+        //a full tree has a leaf for every symbol plus the NYT node, and one internal node for each symbol
+        int nodeCapacity = 2 * symbolCapacity + 1;
+
+        this.symbolBits = symbolBits;
+        this.weight = new int[nodeCapacity];
+        this.parent = new int[nodeCapacity];
+        this.leftChild = new int[nodeCapacity];
+        this.rightChild = new int[nodeCapacity];
+        this.symbol = new int[nodeCapacity];
+        this.symbolIndex = new int[alphabetSize];
+        this.code = new long[nodeCapacity];
+        this.codeLength = new int[nodeCapacity];
+        this.nodeStack = sharedNodeStack != null ? sharedNodeStack : new int[nodeCapacity];
+        this.block = new int[nodeCapacity];
+        this.blockLeader = new int[nodeCapacity];
+        this.blockLowest = new int[nodeCapacity];
+
+        //every block starts out free, each pointing at the one after it
+        for(int i = 0; i < nodeCapacity; i++) {
+            this.block[i] = NONE;
+            this.blockLeader[i] = i + 1 < nodeCapacity ? i + 1 : NONE;
+        }
+        this.firstFreeBlock = 0;
+
+        for(int i = 0; i < alphabetSize; i++) {
+            this.symbolIndex[i] = NONE;
+        }
+
+        //makes the initial NYT node for the tree, which is also the root, with the highest node number
+        this.root = nodeCapacity - 1;
+        this.NYTNode = this.root;
+        this.makeLeaf(this.NYTNode, NYT, 0);
+        this.parent[this.root] = NONE;
+    }
+
+    /**
+     * Gets the Huffman code of the given symbol, with the first bit of the code being the most significant.
+     * Its length is given by getHuffmanCodeLength.
+     * @param symbolToGet The symbol to get the code for, or NYT for the code of the NYT node.
+     * @return The Huffman code of the symbol.
+     */
+    public long getHuffmanCode(int symbolToGet) {
+        return this.code[this.getNodeOfSymbol(symbolToGet)];
+    }
+
+    /**
+     * Gets the length in bits of the Huffman code of the given symbol.
+     * @param symbolToGet The symbol to get the code length for, or NYT for the NYT node.
+     * @return The number of bits in the Huffman code of the symbol.
+     */
+    public int getHuffmanCodeLength(int symbolToGet) {
+        //the current node being looked at
+        int currentNode = this.getNodeOfSymbol(symbolToGet);
+
+        //if the NYT node is the root then its code is a single 0
+        if(this.isRoot(currentNode))
+            return 1;
+
+        return this.codeLength[currentNode];
+    }
+
+    /**
+     * Puts the tree back into the state it was constructed in, holding only the NYT node, without allocating anything.
+     * Only the node numbers which are in use are cleared, so resetting a tree which has only seen a few symbols is
+     * cheap however large its alphabet is.
+     */
+    public void reset() {
+        for(int node = this.NYTNode; node < this.root; node++) {
+            //leaves give their symbols back and the leaders of blocks give their blocks back
+            if(this.symbol[node] >= 0)
+                this.symbolIndex[this.symbol[node]] = NONE;
+
+            if(this.block[node] != NONE && this.blockLeader[this.block[node]] == node)
+                this.freeBlock(this.block[node]);
+
+            this.block[node] = NONE;
+        }
+
+        this.NYTNode = this.root;
+        this.makeLeaf(this.NYTNode, NYT, 0);
+
+        this.windowStart = 0;
+        this.windowCount = 0;
+
+        //every path of the decoding table starts at the root
+        this.nodeChanged(this.root);
+    }
+
+    /**
+     * Makes this tree the same as another tree of the same width, without allocating anything unless this tree was
+     * made small and has to grow to fit. Only the node numbers in use by either tree are touched.
+     * @param other The tree to copy, which is not changed.
+     * @throws IllegalArgumentException If the other tree has a different number of bits in each symbol.
+     */
+    public void copyFrom(AdaptiveHuffmanTree other) {
+        if(other.symbolBits != this.symbolBits)
+            throw new IllegalArgumentException("Cannot copy a tree of " + other.symbolBits + " bit symbols into a tree of " + this.symbolBits + " bit symbols");
+
+        //the symbols and blocks of this tree are given back before the nodes are overwritten
+        this.reset();
+
+        //the nodes in use run from the NYT node up to the root
+        int nodeCount = other.root + 1 - other.NYTNode;
+        this.ensureNodeCapacity(nodeCount);
+
+        //the trees can have room for different numbers of nodes, so the nodes move by the difference between the roots
+        int shift = this.root - other.root;
+        int lowestNode = other.NYTNode + shift;
+
+        System.arraycopy(other.weight, other.NYTNode, this.weight, lowestNode, nodeCount);
+        System.arraycopy(other.parent, other.NYTNode, this.parent, lowestNode, nodeCount);
+        System.arraycopy(other.leftChild, other.NYTNode, this.leftChild, lowestNode, nodeCount);
+        System.arraycopy(other.rightChild, other.NYTNode, this.rightChild, lowestNode, nodeCount);
+        System.arraycopy(other.symbol, other.NYTNode, this.symbol, lowestNode, nodeCount);
+        System.arraycopy(other.code, other.NYTNode, this.code, lowestNode, nodeCount);
+        System.arraycopy(other.codeLength, other.NYTNode, this.codeLength, lowestNode, nodeCount);
+        this.NYTNode = lowestNode;
+
+        for(int node = lowestNode; node < this.root; node++) {
+            if(shift != 0) {
+                this.parent[node] += shift;
+                if(this.leftChild[node] != NONE) {
+                    this.leftChild[node] += shift;
+                    this.rightChild[node] += shift;
+                }
+            }
+
+            if(this.symbol[node] >= 0)
+                this.symbolIndex[this.symbol[node]] = node;
+
+            //blocks are runs of node numbers, so they are numbered afresh from the lowest node of each run upwards.
+            //the NYT node is not in any block
+            int otherBlock = other.block[node - shift];
+            if(otherBlock == NONE)
+                continue;
+
+            if(other.blockLowest[otherBlock] == node - shift) {
+                this.makeBlock(node);
+            } else {
+                this.block[node] = this.block[node - 1];
+                this.blockLeader[this.block[node]] = node;
+            }
+        }
+
+        //the children of the root move too, but it has no parent
+        if(shift != 0 && this.leftChild[this.root] != NONE) {
+            this.leftChild[this.root] += shift;
+            this.rightChild[this.root] += shift;
+        }
+
+        //every path of the decoding table starts at the root
+        this.nodeChanged(this.root);
+    }
+
+    /**
+     * Writes the state of the tree in a compact form, from which readSnapshot can restore it:
+     * <pre>
+     *   1 byte   number of bits in each symbol
+     *   4 bytes  rescale threshold
+     *   4 bytes  window size
+     *   4 bytes  number of nodes in use apart from the root
+     *   8 bytes  for each node from the root down to the node above the NYT node, its weight and then its symbol if it
+     *            is a leaf, or the complement of the number of nodes its left child is above the NYT node if it is not
+     *   4 bytes  number of symbols in the window, which is 0 if the tree does not keep one
+     *   2 bytes  for each symbol in the window, oldest first, the symbol
+     * </pre>
+     * The right child of a node is always the node above its left child, and the parents, codes and blocks are worked
+     * out again from the rest, so none of them are written. The rescale threshold and window size are written so
+     * that a tree restored from the snapshot carries on forgetting old symbols in the same way.
+     * @param out The output to write the snapshot to.
+     * @throws IOException If the snapshot could not be written.
+     */
+    public void writeSnapshot(DataOutput out) throws IOException {
+        out.writeByte(this.symbolBits);
+        out.writeInt(this.rescaleThreshold);
+        out.writeInt(this.windowSize);
+        out.writeInt(this.root - this.NYTNode);
+
+        for(int node = this.root; node > this.NYTNode; node--) {
+            out.writeInt(this.weight[node]);
+            out.writeInt(this.leftChild[node] == NONE ? this.symbol[node] : ~(this.leftChild[node] - this.NYTNode));
+        }
+
+        out.writeInt(this.windowCount);
+        for(int i = 0; i < this.windowCount; i++) {
+            out.writeShort(this.getWindowSymbol(i));
+        }
+    }
+
+    /**
+     * Restores the state of a tree from a snapshot written by writeSnapshot, replacing the state of this tree. The
+     * snapshot is checked as it is read, and this tree is left holding only the NYT node if it is damaged. The tree
+     * takes its rescale threshold and window size from the snapshot.
+     * @param in The input to read the snapshot from.
+     * @throws IOException If the snapshot could not be read, is of a tree of a different width, or is damaged.
+     */
+    public void readSnapshot(DataInput in) throws IOException {
+        int snapshotSymbolBits = in.readUnsignedByte();
+        if(snapshotSymbolBits != this.symbolBits)
+            throw new IOException("Snapshot is of a tree of " + snapshotSymbolBits + " bit symbols, not " + this.symbolBits + " bit symbols");
+
+        //a tree cannot both rescale and keep a window
+        int snapshotRescaleThreshold = in.readInt();
+        int snapshotWindowSize = in.readInt();
+        if((snapshotRescaleThreshold != NO_RESCALING && (snapshotRescaleThreshold < 2 || snapshotWindowSize != NO_WINDOW))
+                || (snapshotWindowSize != NO_WINDOW && (snapshotWindowSize < 1 || snapshotWindowSize > MAX_WINDOW_SIZE)))
+            throw new IOException("Snapshot is damaged");
+
+        //every symbol in the tree brings an internal node with it, so there is an even number of nodes below the root
+        int nodeCount = in.readInt();
+        if(nodeCount < 0 || nodeCount > 2 * this.symbolIndex.length || nodeCount % 2 != 0)
+            throw new IOException("Snapshot is damaged");
+
+        this.ensureNodeCapacity(nodeCount + 1);
+        this.rescaleThreshold = NO_RESCALING;
+        this.setWindowSize(snapshotWindowSize);
+        this.rescaleThreshold = snapshotRescaleThreshold;
+        this.reset();
+
+        //the node number the NYT node will have
+        int lowestNode = this.root - nodeCount;
+
+        //nodes are only given a parent and a block as the snapshot is read
+        for(int node = lowestNode; node <= this.root; node++) {
+            this.parent[node] = NONE;
+            this.block[node] = NONE;
+        }
+
+        try {
+            this.readNodes(in, lowestNode);
+        } catch (IOException e) {
+            //the snapshot was damaged or ended early, so the nodes read so far are thrown away
+            this.discardSnapshot(lowestNode + 1);
+            throw e;
+        }
+
+        this.NYTNode = lowestNode;
+        this.rebuildBlocksAndCodes();
+
+        this.readWindow(in);
+    }
+
+    /**
+     * Reads the nodes of a snapshot into place and checks them, before any blocks are made or codes worked out.
+     * @param in The input to read the nodes from.
+     * @param lowestNode The node number the NYT node will have.
+     * @throws IOException If the nodes could not be read or are damaged.
+     */
+    private void readNodes(DataInput in, int lowestNode) throws IOException {
+        //the number of internal nodes read so far
+        int internalNodeCount = 0;
+
+        for(int node = this.root; node > lowestNode; node--) {
+            this.weight[node] = in.readInt();
+            int link = in.readInt();
+
+            if(link >= 0) {
+                //each symbol is held by one leaf
+                if(link >= this.symbolIndex.length || this.symbolIndex[link] != NONE)
+                    throw new IOException("Snapshot is damaged");
+
+                this.makeLeaf(node, link, this.weight[node]);
+                this.symbolIndex[link] = node;
+            } else {
+                //the children are lower than the node, and have no other parent
+                int left = lowestNode + ~link;
+                this.symbol[node] = NONE;
+
+                if(~link >= node - lowestNode - 1 || this.parent[left] != NONE || this.parent[left + 1] != NONE)
+                    throw new IOException("Snapshot is damaged");
+
+                this.leftChild[node] = left;
+                this.rightChild[node] = left + 1;
+                this.parent[left] = node;
+                this.parent[left + 1] = node;
+                internalNodeCount++;
+            }
+        }
+
+        this.makeLeaf(lowestNode, NYT, 0);
+
+        //every node but the root has a parent when there are as many children as nodes, the weights keep the sibling
+        //property, and the parent of the NYT node is straight above its sibling as updateNode expects
+        int nodeCount = this.root - lowestNode;
+        boolean damaged = internalNodeCount * 2 != nodeCount || (nodeCount > 0 && this.parent[lowestNode] != lowestNode + 2);
+        for(int node = lowestNode + 1; node <= this.root && !damaged; node++) {
+            damaged = this.weight[node] < this.weight[node - 1] || this.weight[node] < 1
+                    || (this.leftChild[node] != NONE && this.weight[node] != this.weight[this.leftChild[node]] + this.weight[this.rightChild[node]]);
+        }
+
+        if(damaged)
+            throw new IOException("Snapshot is damaged");
+    }
+
+    /**
+     * Reads the window at the end of a snapshot into the tree, checking that every symbol in it has a leaf heavy enough
+     * to be removed as many times as the symbol is in the window.
+     * @param in The input to read the window from.
+     * @throws IOException If the window could not be read, is too large for the tree, or is damaged.
+     */
+    private void readWindow(DataInput in) throws IOException {
+        int count = in.readInt();
+
+        if(count < 0 || count > this.windowSize) {
+            this.reset();
+            throw new IOException("Snapshot is damaged");
+        }
+
+        //the number of times each symbol is in the window
+        int[] windowWeight = new int[this.symbolIndex.length];
+
+        try {
+            for(int i = 0; i < count; i++) {
+                int symbolInWindow = in.readUnsignedShort();
+
+                if(symbolInWindow >= this.symbolIndex.length || this.symbolIndex[symbolInWindow] == NONE
+                        || ++windowWeight[symbolInWindow] > this.weight[this.symbolIndex[symbolInWindow]])
+                    throw new IOException("Snapshot is damaged");
+
+                this.appendToWindow(symbolInWindow);
+            }
+        } catch (IOException e) {
+            this.reset();
+            throw e;
+        }
+    }
+
+    /**
+     * Halves the weight of every leaf, keeping it at least 1, and rebuilds the tree from the new weights so that it
+     * keeps the sibling property. Old counts are then worth half as much as new ones, so the codes follow changes in
+     * the data more quickly, and the weights stay well within an int however much data goes through the tree.
+     * <p>
+     * The leaves are already in order of weight by node number, and halving keeps that order, so the tree is rebuilt
+     * as a Huffman tree by repeatedly joining the two lightest nodes, without sorting anything. The nodes are numbered
+     * in the order they are joined, which keeps the weights in order, puts siblings next to each other with the left
+     * child below the right, and leaves the NYT node the lowest. Internal nodes are joined before leaves of the same
+     * weight, which puts the parent of the NYT node straight above its sibling as updateNode expects, and means the
+     * encoder and the decoder always build the same tree.
+     * @throws IllegalStateException If the tree keeps a window.
+     */
+    public void rescale() {
+        //halving would leave leaves lighter than the number of times their symbols are still to leave the window
+        if(this.windowSize != NO_WINDOW)
+            throw new IllegalStateException("A tree keeping a window cannot be rescaled");
+
+        //the node the NYT node is at, which the rebuilt tree keeps as it has the same number of nodes
+        int lowestNode = this.NYTNode;
+
+        //the symbols and halved weights of the leaves in order of node number, two to an entry of the node stack
+        int leafCount = 0;
+        for(int node = lowestNode + 1; node <= this.root; node++) {
+            if(this.leftChild[node] == NONE) {
+                this.nodeStack[2 * leafCount] = this.symbol[node];
+                this.nodeStack[2 * leafCount + 1] = (this.weight[node] + 1) >>> 1;
+                leafCount++;
+            }
+        }
+
+        //the blocks are given back and made again once the weights are known
+        for(int node = lowestNode + 1; node < this.root; node++) {
+            if(this.blockLeader[this.block[node]] == node)
+                this.freeBlock(this.block[node]);
+            this.block[node] = NONE;
+        }
+
+        this.rebuildFromLeaves(leafCount);
+    }
+
+    /**
+     * Makes the tree hold the symbols with a weight, with those weights, building it straight from them as a Huffman
+     * tree the way rescale rebuilds one. It takes the same time however heavy the weights are, unlike adding each
+     * symbol as many times as its weight. Symbols of the same weight are put in order of symbol, so the same weights
+     * always make the same tree.
+     * @param weights The weight of each symbol in the alphabet, or 0 for a symbol the tree should not hold. The
+     *                weights must add up to less than Integer.MAX_VALUE.
+     * @throws IllegalArgumentException If there is not a weight for every symbol, or any is negative.
+     * @throws IllegalStateException If the tree keeps a window.
+     */
+    public void buildFromWeights(int[] weights) {
+        if(weights.length != this.symbolIndex.length)
+            throw new IllegalArgumentException("There must be a weight for each of the " + this.symbolIndex.length + " symbols");
+
+        //the leaves would be lighter than the number of times their symbols are in the window
+        if(this.windowSize != NO_WINDOW)
+            throw new IllegalStateException("A tree keeping a window cannot be built from weights");
+
+        //the symbols with a weight, lightest first, with the weight above the symbol so that sorting orders by both
+        long[] leaves = new long[weights.length];
+        int leafCount = 0;
+
+        for(int symbolWithWeight = 0; symbolWithWeight < weights.length; symbolWithWeight++) {
+            if(weights[symbolWithWeight] < 0)
+                throw new IllegalArgumentException("Weights cannot be negative");
+            if(weights[symbolWithWeight] > 0)
+                leaves[leafCount++] = ((long) weights[symbolWithWeight] << 16) | symbolWithWeight;
+        }
+
+        Arrays.sort(leaves, 0, leafCount);
+
+        this.reset();
+        this.ensureNodeCapacity(2 * leafCount + 1);
+
+        for(int i = 0; i < leafCount; i++) {
+            this.nodeStack[2 * i] = (int) (leaves[i] & 0xffff);
+            this.nodeStack[2 * i + 1] = (int) (leaves[i] >>> 16);
+        }
+
+        //a leaf and an internal node for each symbol, below the root
+        this.NYTNode = this.root - 2 * leafCount;
+        this.rebuildFromLeaves(leafCount);
+    }
+
+    /**
+     * Rebuilds every node from the NYT node up to the root as a Huffman tree of the given leaves, by repeatedly joining
+     * the two lightest nodes. None of the nodes may be in a block.
+     * @param leafCount The number of leaves, whose symbols and weights are in the node stack in order of weight, two
+     *                  to an entry, and which make up half of the nodes above the NYT node.
+     */
+    private void rebuildFromLeaves(int leafCount) {
+        int lowestNode = this.NYTNode;
+
+        this.makeLeaf(lowestNode, NYT, 0);
+
+        //the next leaf to be joined, and the number of internal nodes joined so far. The children of the internal
+        //nodes are the nodes joined before them in pairs, so the next internal node has the next pair as its children
+        int nextLeaf = 0, joinedInternalNodes = 0;
+
+        for(int node = lowestNode + 1; node <= this.root; node++) {
+            int left = lowestNode + 2 * joinedInternalNodes;
+
+            //an internal node can only be joined once both of its children have been
+            boolean internalReady = left + 1 < node;
+            boolean joinLeaf = nextLeaf < leafCount
+                    && (!internalReady || this.nodeStack[2 * nextLeaf + 1] < this.weight[left] + this.weight[left + 1]);
+
+            if(joinLeaf) {
+                this.makeLeaf(node, this.nodeStack[2 * nextLeaf], this.nodeStack[2 * nextLeaf + 1]);
+                this.symbolIndex[this.symbol[node]] = node;
+                nextLeaf++;
+            } else {
+                this.symbol[node] = NONE;
+                this.weight[node] = this.weight[left] + this.weight[left + 1];
+                this.leftChild[node] = left;
+                this.rightChild[node] = left + 1;
+                this.parent[left] = node;
+                this.parent[left + 1] = node;
+                joinedInternalNodes++;
+            }
+        }
+
+        this.parent[this.root] = NONE;
+        this.rebuildBlocksAndCodes();
+    }
+
+    /**
+     * Makes the blocks and works out the codes of a tree whose nodes have all been put in place at once, and tells the
+     * decoding table that the whole tree has changed.
+     */
+    private void rebuildBlocksAndCodes() {
+        //blocks are runs of nodes of the same weight, apart from the NYT node and the root
+        for(int node = this.NYTNode + 1; node < this.root; node++) {
+            if(node - 1 != this.NYTNode && this.weight[node - 1] == this.weight[node]) {
+                this.block[node] = this.block[node - 1];
+                this.blockLeader[this.block[node]] = node;
+            } else {
+                this.makeBlock(node);
+            }
+        }
+
+        this.updateSubtreeCodes(this.root);
+
+        //every path of the decoding table starts at the root
+        this.nodeChanged(this.root);
+    }
+
+    /**
+     * Makes the tree rescale its weights whenever the weight of the root reaches the given threshold. The encoder and
+     * the decoder of some data must use the same threshold. The threshold is kept when the tree is reset. Halving
+     * leaves every leaf with a weight of at least 1, so a threshold which is not well above twice the number of
+     * symbols in the tree makes it rescale on nearly every symbol.
+     * @param rescaleThreshold The weight of the root at which the weights are halved, at least 2, or NO_RESCALING.
+     * @throws IllegalArgumentException If the threshold is below 2 and is not NO_RESCALING.
+     * @throws IllegalStateException If the tree keeps a window.
+     */
+    public void setRescaleThreshold(int rescaleThreshold) {
+        if(rescaleThreshold != NO_RESCALING && rescaleThreshold < 2)
+            throw new IllegalArgumentException("Rescale threshold must be at least 2");
+
+        if(rescaleThreshold != NO_RESCALING && this.windowSize != NO_WINDOW)
+            throw new IllegalStateException("A tree keeping a window cannot be rescaled");
+
+        this.rescaleThreshold = rescaleThreshold;
+    }
+
+    public int getRescaleThreshold() {
+        return this.rescaleThreshold;
+    }
+
+    /**
+     * Makes the tree hold only the given number of most recent symbols. Once the window is full, each symbol added
+     * takes the oldest symbol in the window out of the tree, so the codes follow the recent data rather than all of it.
+     * The encoder and the decoder of some data must use the same window size. Changing it empties the window, so it
+     * should be set before any symbols are added. It is kept when the tree is reset.
+     * @param windowSize The number of symbols in the window, between 1 and MAX_WINDOW_SIZE, or NO_WINDOW.
+     * @throws IllegalArgumentException If the window size is out of range.
+     * @throws IllegalStateException If the tree rescales its weights.
+     */
+    public void setWindowSize(int windowSize) {
+        if(windowSize != NO_WINDOW && (windowSize < 1 || windowSize > MAX_WINDOW_SIZE))
+            throw new IllegalArgumentException("Window size must be between 1 and " + MAX_WINDOW_SIZE);
+
+        if(windowSize != NO_WINDOW && this.rescaleThreshold != NO_RESCALING)
+            throw new IllegalStateException("A tree which rescales its weights cannot keep a window");
+
+        //the window is only allocated again when it changes size
+        if(windowSize != this.windowSize)
+            this.window = windowSize != NO_WINDOW ? new char[Math.min(windowSize, INITIAL_WINDOW_CAPACITY)] : null;
+
+        this.windowSize = windowSize;
+        this.windowStart = 0;
+        this.windowCount = 0;
+    }
+
+    public int getWindowSize() {
+        return this.windowSize;
+    }
+
+    /**
+     * Gets a symbol in the window.
+     * @param index The position of the symbol in the window, where 0 is the oldest.
+     * @return The symbol.
+     */
+    private int getWindowSymbol(int index) {
+        int position = this.windowStart + index;
+
+        return this.window[position < this.windowSize ? position : position - this.windowSize];
+    }
+
+    /**
+     * Adds a symbol to the end of a window which is not full yet, and so still starts at 0, growing it if it has no
+     * room left.
+     * @param symbolToAdd The symbol to add.
+     */
+    private void appendToWindow(int symbolToAdd) {
+        if(this.windowCount == this.window.length)
+            this.window = Arrays.copyOf(this.window, (int) Math.min(this.windowSize, 2L * this.window.length));
+
+        this.window[this.windowCount++] = (char) symbolToAdd;
+    }
+
+    /**
+     * Adds a symbol to the end of the window, taking the oldest symbol out of the tree first if the window is full.
+     * @param symbolToAdd The symbol about to be added to the tree.
+     */
+    private void slideWindow(int symbolToAdd) {
+        if(this.windowCount < this.windowSize) {
+            this.appendToWindow(symbolToAdd);
+            return;
+        }
+
+        //the oldest symbol's place in the ring is taken by the new one, which makes the next symbol the oldest
+        this.removeCharFromTree(this.window[this.windowStart]);
+        this.window[this.windowStart] = (char) symbolToAdd;
+
+        if(++this.windowStart == this.windowSize)
+            this.windowStart = 0;
+    }
+
+    /**
+     * Puts the tree back to holding only the NYT node after a damaged snapshot was partly read, giving back the
+     * symbols of the leaves which were read. No blocks have been made by then, and only the leaves which were read
+     * are in the symbol index.
+     * @param lowestReadNode The lowest node number which may have been read from the snapshot.
+     */
+    private void discardSnapshot(int lowestReadNode) {
+        for(int node = lowestReadNode; node <= this.root; node++) {
+            if(this.leftChild[node] == NONE && this.symbol[node] >= 0 && this.symbolIndex[this.symbol[node]] == node)
+                this.symbolIndex[this.symbol[node]] = NONE;
+        }
+
+        this.makeLeaf(this.root, NYT, 0);
+        this.parent[this.root] = NONE;
+    }
+
+    /**
+     * Edits the tree based on the given symbol. If the symbol already exists in the tree, then it increments its
+     * frequency and checks that the tree is still in order. Otherwise, the NYT node is changed with a new parent node and the
+     * new symbol node is added as its sibling.
+     * @param symbolToAdd The symbol to add to the tree.
+     */
+    public void addCharToTree(int symbolToAdd) {
+
+        if(this.windowSize != NO_WINDOW)
+            this.slideWindow(symbolToAdd);
+
+        //tries to find if the symbol is already in the tree
+        int nodeToEdit = this.symbolIndex[symbolToAdd];
+
+        //if it is a new symbol for the tree then add it to NYT, where its new parent already has the correct weight.
+        //otherwise, check to see if the node needs to be replaced anywhere before incrementing frequency.
+        if(nodeToEdit == NONE) {
+            //the tree can grow while the node is made, so its parent is only looked up afterwards
+            int newNode = this.createNewNode(symbolToAdd);
+            nodeToEdit = this.parent[newNode];
+        } else {
+            nodeToEdit = this.incrementNode(nodeToEdit);
+        }
+
+        //while there is a parent node
+        while(!this.isRoot(nodeToEdit)) {
+            //update the parent node and its position
+            nodeToEdit = this.parent[nodeToEdit];
+
+            //root is not in any weight groups so all we need to do with the root node is update its frequency
+            if(this.isRoot(nodeToEdit)) {
+                this.weight[nodeToEdit]++;
+            } else {
+                nodeToEdit = this.incrementNode(nodeToEdit);
+            }
+        }
+
+        if(this.rescaleThreshold != NO_RESCALING && this.weight[this.root] >= this.rescaleThreshold)
+            this.rescale();
+    }
+
+    /**
+     * Takes one occurrence of a symbol out of the tree, undoing addCharToTree. Each node on the path up from the leaf is
+     * moved to the lowest position in its weight group before its weight is decremented, which keeps the sibling
+     * property just as moving nodes to the highest position does for an increment. A leaf whose weight would drop to
+     * 0 is taken out of the tree along with its parent, so the symbol is new to the tree again.
+     * @param symbolToRemove The symbol to take out of the tree.
+     * @throws IllegalArgumentException If the symbol is not in the tree.
+     */
+    public void removeCharFromTree(int symbolToRemove) {
+        int nodeToEdit = this.symbolIndex[symbolToRemove];
+
+        if(nodeToEdit == NONE)
+            throw new IllegalArgumentException("Symbol " + symbolToRemove + " is not in the tree");
+
+        if(this.weight[nodeToEdit] == 1) {
+            nodeToEdit = this.removeLeaf(nodeToEdit);
+        } else {
+            nodeToEdit = this.moveToLowestInWeightGroup(nodeToEdit);
+            this.decrementWeight(nodeToEdit);
+        }
+
+        while(!this.isRoot(nodeToEdit)) {
+            nodeToEdit = this.parent[nodeToEdit];
+
+            //the root is not in any weight group, so only its weight changes
+            if(this.isRoot(nodeToEdit)) {
+                this.weight[nodeToEdit]--;
+            } else {
+                nodeToEdit = this.moveToLowestInWeightGroup(nodeToEdit);
+                this.decrementWeight(nodeToEdit);
+            }
+        }
+
+        //taking a leaf out makes its parent's sibling the sibling of the NYT node, whose parent now weighs the same as
+        //it but can be above other nodes of that weight. updateNode expects it straight above the sibling, and the
+        //nodes in between all have its weight, so it is swapped down to there
+        if(!this.isRoot(this.NYTNode) && this.parent[this.NYTNode] != this.NYTNode + 2)
+            this.swapNodesInTree(this.parent[this.NYTNode], this.NYTNode + 2);
+    }
+
+    /**
+     * Takes a leaf of weight 1 out of the tree, undoing createNewNode. The lowest node of weight 1 is always the
+     * sibling of the NYT node, so the leaf is swapped there, and then its parent becomes the NYT node.
+     * @param leaf The node number of the leaf.
+     * @return The node number of the new NYT node, whose weight has dropped from 1 to 0 like the leaf's.
+     */
+    private int removeLeaf(int leaf) {
+        //the sibling of the NYT node and their parent, which sit straight above the NYT node
+        int sibling = this.NYTNode + 1;
+        int parentNode = this.NYTNode + 2;
+
+        if(leaf != sibling)
+            this.swapNodesInTree(leaf, sibling);
+
+        this.symbolIndex[this.symbol[sibling]] = NONE;
+
+        //the sibling is the lowest node of its block, and the parent is the next lowest unless it is the root
+        int siblingBlock = this.block[sibling];
+        if(this.isRoot(parentNode) || this.blockLeader[siblingBlock] == parentNode)
+            this.freeBlock(siblingBlock);
+        else
+            this.blockLowest[siblingBlock] = parentNode + 1;
+
+        //neither node is in a block any more
+        this.block[sibling] = NONE;
+        this.block[parentNode] = NONE;
+
+        this.makeLeaf(parentNode, NYT, 0);
+        this.NYTNode = parentNode;
+
+        //the old parent no longer has children
+        this.nodeChanged(parentNode);
+
+        return parentNode;
+    }
+
+    /**
+     * Moves the node to the lowest position in its weight group before its weight is decremented, swapping it with the
+     * node that currently holds that position. The nodes below it on its path have already been decremented, so none
+     * of them can be in its weight group.
+     * @param node The node number of the node about to be decremented.
+     * @return The node number of the node after any swap.
+     */
+    private int moveToLowestInWeightGroup(int node) {
+        //most nodes are already the lowest of their weight, which can be seen without looking up the block
+        if(node - 1 == this.NYTNode || this.weight[node - 1] != this.weight[node])
+            return node;
+
+        int nodeToSwap = this.blockLowest[this.block[node]];
+        this.swapNodesInTree(node, nodeToSwap);
+
+        return nodeToSwap;
+    }
+
+    /**
+     * Decrements the weight of a node, moving it from its block into the block of its new weight. The node is the
+     * lowest of its block, and its new weight is at least 1.
+     * @param node The node number of the node to decrement.
+     */
+    private void decrementWeight(int node) {
+        //the old and new weights of the node
+        int oldWeight = this.weight[node]--;
+        int newWeight = oldWeight - 1;
+
+        //the weights either side of the node. The root is not in any block, so it is treated as being heavier, and the
+        //NYT node is lighter than any node in a block
+        int weightAbove = this.isRoot(node + 1) ? Integer.MAX_VALUE : this.weight[node + 1];
+        int weightBelow = node - 1 == this.NYTNode ? -1 : this.weight[node - 1];
+
+        //most nodes are alone in their block before and after, so their block does not change
+        if(weightAbove > oldWeight && weightBelow < newWeight)
+            return;
+
+        //the block the node is leaving
+        int oldBlock = this.block[node];
+
+        if(weightAbove != oldWeight) {
+            //a node which is alone in its block keeps the block unless it joins the one below
+            if(weightBelow == newWeight) {
+                this.freeBlock(oldBlock);
+                this.joinBlockBelow(node);
+            }
+        } else {
+            //the rest of the old block keeps its weight
+            this.blockLowest[oldBlock]++;
+
+            if(weightBelow == newWeight)
+                this.joinBlockBelow(node);
+            else
+                this.makeBlock(node);
+        }
+    }
+
+    /**
+     * Adds a node to the block of the node below it as the leader of that block.
+     * @param node The node number of the node.
+     */
+    private void joinBlockBelow(int node) {
+        this.block[node] = this.block[node - 1];
+        this.blockLeader[this.block[node]] = node;
+    }
+
+    /**
+     * Spawns a new node using the NYT node of the tree and gives back the node number of this new node.
+     * The position of the NYT node becomes the new parent node, with the NYT node as its left child and the new node as
+     * its right child, taking the next two lowest node numbers.
+     * @param symbolToAdd The symbol to add to the tree.
+     * @return The node number of the new node which was just added.
+     */
+    private int createNewNode(int symbolToAdd) {
+
+        //the two new nodes go below the NYT node, so a tree which was made small may have to grow first
+        if(this.NYTNode < 2)
+            this.ensureNodeCapacity(this.root + 3);
+
+        //the new parent node replaces the NYT node in the tree, keeping its node number and its parent
+        int newParentNode = this.NYTNode;
+
+        //the new node to be added and the new position of the NYT node
+        int newNode = newParentNode - 1;
+        int newNYTNode = newParentNode - 2;
+
+        this.makeLeaf(newNYTNode, NYT, 0);
+        this.makeLeaf(newNode, symbolToAdd, 1);
+
+        //the new parent node has the NYT node on the left and the new node on the right
+        this.symbol[newParentNode] = NONE;
+        this.leftChild[newParentNode] = newNYTNode;
+        this.rightChild[newParentNode] = newNode;
+        this.weight[newParentNode] = 1;
+        this.parent[newNYTNode] = newParentNode;
+        this.parent[newNode] = newParentNode;
+        this.setChildCode(newNYTNode, newParentNode, 0);
+        this.setChildCode(newNode, newParentNode, 1);
+
+        this.NYTNode = newNYTNode;
+
+        //the new parent node and the new node both have a weight of 1, so they join the block above them
+        if(!this.isRoot(newParentNode)) {
+            if(!this.isRoot(newParentNode + 1) && this.weight[newParentNode + 1] == 1)
+                this.joinBlockAbove(newParentNode);
+            else
+                this.makeBlock(newParentNode);
+            this.joinBlockAbove(newNode);
+        } else {
+            this.makeBlock(newNode);
+        }
+
+        //the old NYT node now has children
+        this.nodeChanged(newParentNode);
+
+        //add the new node to the symbol index
+        this.symbolIndex[symbolToAdd] = newNode;
+
+        return newNode;
+    }
+
+    /**
+     * Makes sure the tree has room for at least the given number of nodes, doubling the number of symbols it has room
+     * for until it does. Every node number is moved up by the number of nodes added, so the root keeps the highest
+     * number and the nodes in use keep their order, and the new node numbers are free below the NYT node. The codes
+     * do not change, but every node number held by the decoding table does.
+     * @param nodesNeeded The number of nodes the tree needs room for, at most the size of a full tree.
+     */
+    private void ensureNodeCapacity(int nodesNeeded) {
+        int oldCapacity = this.root + 1;
+
+        if(nodesNeeded <= oldCapacity)
+            return;
+
+        //the number of symbols there is room for, doubled up to the whole alphabet
+        int symbolCapacity = (oldCapacity - 1) / 2;
+        while(2 * symbolCapacity + 1 < nodesNeeded)
+            symbolCapacity = Math.min(2 * symbolCapacity, this.symbolIndex.length);
+
+        int newCapacity = 2 * symbolCapacity + 1;
+        int shift = newCapacity - oldCapacity;
+
+        //the nodes in use run from the NYT node up to the root
+        int lowestNode = this.NYTNode;
+        int nodeCount = oldCapacity - lowestNode;
+
+        //the leaders and lowest nodes of the blocks in use, and the leaves of the symbol index, move with the nodes
+        for(int node = lowestNode; node <= this.root; node++) {
+            int nodeBlock = this.block[node];
+            if(nodeBlock != NONE && this.blockLeader[nodeBlock] == node) {
+                this.blockLeader[nodeBlock] += shift;
+                this.blockLowest[nodeBlock] += shift;
+            }
+
+            if(this.leftChild[node] == NONE && this.symbol[node] >= 0)
+                this.symbolIndex[this.symbol[node]] += shift;
+        }
+
+        this.weight = moveNodes(this.weight, lowestNode, nodeCount, newCapacity, shift, 0);
+        this.parent = moveNodes(this.parent, lowestNode, nodeCount, newCapacity, shift, shift);
+        this.leftChild = moveNodes(this.leftChild, lowestNode, nodeCount, newCapacity, shift, shift);
+        this.rightChild = moveNodes(this.rightChild, lowestNode, nodeCount, newCapacity, shift, shift);
+        this.symbol = moveNodes(this.symbol, lowestNode, nodeCount, newCapacity, shift, 0);
+        this.codeLength = moveNodes(this.codeLength, lowestNode, nodeCount, newCapacity, shift, 0);
+        this.block = moveNodes(this.block, lowestNode, nodeCount, newCapacity, shift, 0);
+
+        long[] newCode = new long[newCapacity];
+        System.arraycopy(this.code, lowestNode, newCode, lowestNode + shift, nodeCount);
+        this.code = newCode;
+
+        //the nodes which are not in use are in no block
+        Arrays.fill(this.block, 0, lowestNode + shift, NONE);
+
+        //block numbers stay the same, and the new ones are free
+        this.blockLeader = Arrays.copyOf(this.blockLeader, newCapacity);
+        this.blockLowest = Arrays.copyOf(this.blockLowest, newCapacity);
+        for(int newBlock = oldCapacity; newBlock < newCapacity; newBlock++)
+            this.freeBlock(newBlock);
+
+        //a shared node stack already has room for a full tree
+        if(this.nodeStack.length < newCapacity)
+            this.nodeStack = new int[newCapacity];
+
+        this.root += shift;
+        this.NYTNode += shift;
+
+        //every entry of the decoding table holds a node number
+        this.nodeChanged(this.root);
+    }
+
+    /**
+     * Copies the nodes in use from one of the arrays of the tree into a bigger array, moving them up.
+     * @param array The array to copy.
+     * @param lowestNode The lowest node number in use.
+     * @param nodeCount The number of nodes in use.
+     * @param newCapacity The length of the new array.
+     * @param shift The number of places each node moves up.
+     * @param linkShift The amount added to each value which is not NONE, which is shift for arrays of node numbers.
+     * @return The new array.
+     */
+    private static int[] moveNodes(int[] array, int lowestNode, int nodeCount, int newCapacity, int shift, int linkShift) {
+        int[] moved = new int[newCapacity];
+        System.arraycopy(array, lowestNode, moved, lowestNode + shift, nodeCount);
+
+        if(linkShift != 0) {
+            for(int node = lowestNode + shift; node < newCapacity; node++) {
+                if(moved[node] != NONE)
+                    moved[node] += linkShift;
+            }
+        }
+
+        return moved;
+    }
+
+    /**
+     * Sets the node at the given node number up as a leaf with no children.
+     * @param node The node number of the leaf.
+     * @param symbolOfLeaf The symbol the leaf holds.
+     * @param weightOfLeaf The starting weight of the leaf.
+     */
+    private void makeLeaf(int node, int symbolOfLeaf, int weightOfLeaf) {
+        this.symbol[node] = symbolOfLeaf;
+        this.weight[node] = weightOfLeaf;
+        this.leftChild[node] = NONE;
+        this.rightChild[node] = NONE;
+    }
+
+    /**
+     * Moves a node to the highest position in its weight group and increments its weight. Most nodes are the only node
+     * of their weight and stay that way, which is seen from the weights either side of them without going through the
+     * blocks at all.
+     * @param node The node number of the node to increment.
+     * @return The node number of the node after any swap.
+     */
+    private int incrementNode(int node) {
+        //the weight of the node before it is incremented
+        int oldWeight = this.weight[node];
+
+        //the root is not in any block, so it is treated as being heavier
+        if((this.isRoot(node + 1) || this.weight[node + 1] > oldWeight + 1) && this.weight[node - 1] < oldWeight) {
+            this.weight[node] = oldWeight + 1;
+            return node;
+        }
+
+        node = this.updateNode(node);
+        this.incrementWeight(node);
+
+        return node;
+    }
+
+    /**
+     * Moves the node to the highest position in its weight group before its weight is incremented, swapping it with
+     * the node that currently holds that position. The node's own parent is never swapped with it.
+     * @param node The node number of the node about to be incremented.
+     * @return The node number of the node after any swap.
+     */
+    private int updateNode(int node) {
+
+        //the node the given node needs to be swapped with
+        int nodeToSwap = this.getHighestInWeightGroup(node);
+
+        //if the parent node is the highest in the group then use the second highest instead
+        if(nodeToSwap == this.parent[node])
+            nodeToSwap--;
+
+        if(nodeToSwap != node) {
+            this.swapNodesInTree(node, nodeToSwap);
+            node = nodeToSwap;
+        }
+
+        return node;
+    }
+
+    /**
+     * Gets the node with the highest node number that has the same weight as the given node, which is the leader of
+     * its block. The root is not part of any weight group.
+     * @param nodeToCheck The node number of the node to check.
+     * @return The node number of the highest node in the weight group.
+     */
+    private int getHighestInWeightGroup(int nodeToCheck) {
+        //most nodes are already the highest of their weight, which can be seen without looking up the block
+        if(this.isRoot(nodeToCheck + 1) || this.weight[nodeToCheck + 1] != this.weight[nodeToCheck])
+            return nodeToCheck;
+
+        return this.blockLeader[this.block[nodeToCheck]];
+    }
+
+    /**
+     * Increments the weight of a node, moving it from its block into the block of its new weight.
+     * The node is either the leader of its block or, when its parent is the leader, the lowest node of the block.
+     * @param node The node number of the node to increment.
+     */
+    private void incrementWeight(int node) {
+        //the old and new weights of the node
+        int oldWeight = this.weight[node]++;
+        int newWeight = oldWeight + 1;
+
+        //the weights either side of the node. The root is not in any block, so it is treated as being heavier
+        int weightAbove = this.isRoot(node + 1) ? Integer.MAX_VALUE : this.weight[node + 1];
+        int weightBelow = this.weight[node - 1];
+
+        //most nodes are alone in their block before and after, so their block does not change
+        if(weightAbove > newWeight && weightBelow < oldWeight)
+            return;
+
+        //the block the node is leaving
+        int oldBlock = this.block[node];
+
+        if(weightAbove != oldWeight && weightBelow != oldWeight) {
+            //a node which is alone in its block keeps the block unless it joins another one
+            if(weightAbove == newWeight) {
+                this.freeBlock(oldBlock);
+                this.joinBlockAbove(node);
+            }
+
+            //a node incremented before its parent can be left below with the same weight, and is merged in
+            if(weightBelow == newWeight)
+                this.mergeBlockBelow(node);
+        } else {
+            //the rest of the old block keeps its weight, so nothing below the node can have the new weight
+            if(this.blockLeader[oldBlock] == node)
+                this.blockLeader[oldBlock]--;
+            else
+                this.blockLowest[oldBlock]++;
+
+            if(weightAbove == newWeight)
+                this.joinBlockAbove(node);
+            else
+                this.makeBlock(node);
+        }
+    }
+
+    /**
+     * Adds a node to the block of the node above it as the lowest node of that block.
+     * @param node The node number of the node.
+     */
+    private void joinBlockAbove(int node) {
+        this.block[node] = this.block[node + 1];
+        this.blockLowest[this.block[node]] = node;
+    }
+
+    /**
+     * Makes a new block with only the given node in it.
+     * @param node The node number of the node.
+     */
+    private void makeBlock(int node) {
+        this.block[node] = this.firstFreeBlock;
+        this.firstFreeBlock = this.blockLeader[this.block[node]];
+        this.blockLeader[this.block[node]] = node;
+        this.blockLowest[this.block[node]] = node;
+    }
+
+    /**
+     * Merges the block below a node into the node's block, when the nodes below have the same weight.
+     * @param node The node number of the lowest node in its block.
+     */
+    private void mergeBlockBelow(int node) {
+        //the block of the nodes below
+        int blockBelow = this.block[node - 1];
+
+        for(int i = this.blockLowest[blockBelow]; i < node; i++)
+            this.block[i] = this.block[node];
+
+        this.blockLowest[this.block[node]] = this.blockLowest[blockBelow];
+        this.freeBlock(blockBelow);
+    }
+
+    /**
+     * Returns a block which no longer has any nodes in it to the blocks which are not in use.
+     * @param blockToFree The block number of the block.
+     */
+    private void freeBlock(int blockToFree) {
+        this.blockLeader[blockToFree] = this.firstFreeBlock;
+        this.firstFreeBlock = blockToFree;
+    }
+
+    /**
+     * Swaps the two nodes passed to the function in the adaptive huffman tree. Both node numbers stay in the same place
+     * in the tree, so the weights, symbols and children stored at the two node numbers are exchanged.
+     * @param firstNode The node number of the first node to be swapped.
+     * @param secondNode The node number of the second node to be swapped.
+     */
+    private void swapNodesInTree(int firstNode, int secondNode) {
+        //swap space for each of the values when they are exchanged
+        int swapSpace;
+
+        swapSpace = this.weight[firstNode];
+        this.weight[firstNode] = this.weight[secondNode];
+        this.weight[secondNode] = swapSpace;
+
+        swapSpace = this.symbol[firstNode];
+        this.symbol[firstNode] = this.symbol[secondNode];
+        this.symbol[secondNode] = swapSpace;
+
+        swapSpace = this.leftChild[firstNode];
+        this.leftChild[firstNode] = this.leftChild[secondNode];
+        this.leftChild[secondNode] = swapSpace;
+
+        swapSpace = this.rightChild[firstNode];
+        this.rightChild[firstNode] = this.rightChild[secondNode];
+        this.rightChild[secondNode] = swapSpace;
+
+        //the children and symbols which moved need to point at their new node numbers
+        this.relinkNode(firstNode);
+        this.relinkNode(secondNode);
+
+        //the subtrees below both node numbers have moved, so their codes have changed
+        this.updateSubtreeCodes(firstNode);
+        this.updateSubtreeCodes(secondNode);
+
+        this.nodeChanged(firstNode);
+        this.nodeChanged(secondNode);
+    }
+
+    /**
+     * Works out the codes of every node below the given node from the code of that node, which is unchanged.
+     * @param subtreeRoot The node number of the node at the top of the subtree.
+     */
+    private void updateSubtreeCodes(int subtreeRoot) {
+        //the number of nodes waiting to be visited
+        int stackSize = 0;
+
+        //the node being visited
+        int currentNode;
+
+        this.nodeStack[stackSize++] = subtreeRoot;
+
+        while(stackSize > 0) {
+            currentNode = this.nodeStack[--stackSize];
+
+            if(this.leftChild[currentNode] != NONE) {
+                this.setChildCode(this.leftChild[currentNode], currentNode, 0);
+                this.setChildCode(this.rightChild[currentNode], currentNode, 1);
+                this.nodeStack[stackSize++] = this.leftChild[currentNode];
+                this.nodeStack[stackSize++] = this.rightChild[currentNode];
+            }
+        }
+    }
+
+    /**
+     * Sets the code of a node as the code of its parent followed by the bit of the side of the parent it is on.
+     * @param child The node number of the child.
+     * @param parentNode The node number of the parent.
+     * @param side 0 if the child is the left child, 1 if it is the right child.
+     */
+    private void setChildCode(int child, int parentNode, int side) {
+        this.code[child] = (this.code[parentNode] << 1) | side;
+        this.codeLength[child] = this.codeLength[parentNode] + 1;
+    }
+
+    /**
+     * Tells the decoding table, if there is one, that the children of a node have changed.
+     * @param node The node number of the node which changed.
+     */
+    private void nodeChanged(int node) {
+        if(this.decodingTable != null)
+            this.decodingTable.invalidate(node);
+    }
+
+    /**
+     * Points the children, symbol index entry and NYT reference of the node at the given node number back at it after
+     * the node has been moved there.
+     * @param node The node number the node was moved to.
+     */
+    private void relinkNode(int node) {
+        if(this.leftChild[node] != NONE) {
+            this.parent[this.leftChild[node]] = node;
+            this.parent[this.rightChild[node]] = node;
+        } else if(this.symbol[node] == NYT) {
+            this.NYTNode = node;
+        } else {
+            this.symbolIndex[this.symbol[node]] = node;
+        }
+    }
+
+    /**
+     * Gets the node number of the node which holds the given symbol.
+     * @param symbolToFind The symbol to find, or NYT for the NYT node.
+     * @return The node number of the node, or NONE if the symbol has not been seen yet.
+     */
+    private int getNodeOfSymbol(int symbolToFind) {
+        return symbolToFind == NYT ? this.NYTNode : this.symbolIndex[symbolToFind];
+    }
+
+    /**
+     * Checks whether the node given to the function is the root node of the tree or not.
+     * @param node The node number to check.
+     * @return True if the node is the root node, false if it is not.
+     */
+    private boolean isRoot(int node) {
+        return node == this.root;
+    }
+
+    /**
+     * Returns the root of the tree
+     * @return the node number of the root of the tree
+     */
+    public int getRoot(){
+        return this.root;
+    }
+
+    /**
+     * Gets the next node of the tree when given a node and the index of either 0 or 1 for its left or right child
+     * @param prev The node number of the previous node
+     * @param index Value of 0 or 1 to determine if the left or right child should be selected
+     * @return The left child if index = 0, right child if index = 1
+     */
+    public int getNextNode(int prev, int index) {
+        return index == 0 ? this.leftChild[prev] : this.rightChild[prev];
+    }
+
+    /**
+     * Determines whether the given node is the NYT node of the tree
+     * @param node The node number to check if it is the NYT node or not
+     * @return True if it is the NYT node, false if it is not.
+     */
+    public boolean isNYT(int node) {
+        return node == this.NYTNode;
+    }
+
+    /**
+     * Determines whether a node is a leaf node or not by checking to see if it has any children or not.
+     * @param node The node number to check.
+     * @return True if it has no children and thus is a leaf node, false if it is not.
+     */
+    public boolean isLeaf(int node) {
+        return this.leftChild[node] == NONE;
+    }
+
+    /**
+     * Determines if the symbol has been seen in the tree or not yet
+     * @param symbolToCheck The symbol to check
+     * @return True if it exists and therefore has already been seen, false if not.
+     */
+    public boolean symbolExists(int symbolToCheck) {
+        return this.symbolIndex[symbolToCheck] != NONE;
+    }
+
+    /**
+     * Determines whether the root of the tree is also the NYT node.
+     * @return True if the NYT node is the root, false if it is not
+     */
+    public boolean rootIsNYT() {
+        return this.isRoot(this.NYTNode);
+    }
+
+    /**
+     * Gets the symbol held by the given node.
+     * @param node The node number of the node.
+     * @return The symbol held by the node, NYT for the NYT node or NONE for an internal node.
+     */
+    public int getSymbol(int node) {
+        return this.symbol[node];
+    }
+
+    /**
+     * Gets the weight of the given node.
+     * @param node The node number of the node.
+     * @return The weight of the node.
+     */
+    public int getWeight(int node) {
+        return this.weight[node];
+    }
+
+    /**
+     * Gets the parent of the given node.
+     * @param node The node number of the node.
+     * @return The node number of the parent, or NONE if the node is the root.
+     */
+    public int getParent(int node) {
+        return this.parent[node];
+    }
+
+    /**
+     * Gets the code of the given node, which is the path from the root to the node.
+     * @param node The node number of the node.
+     * @return The code of the node, with the first bit of the path being the most significant.
+     */
+    public long getCode(int node) {
+        return this.code[node];
+    }
+
+    /**
+     * Gets the length of the code of the given node, which is its depth in the tree.
+     * @param node The node number of the node.
+     * @return The number of bits in the code of the node.
+     */
+    public int getCodeLength(int node) {
+        return this.codeLength[node];
+    }
+
+    /**
+     * Gets the left child of the given node.
+     * @param node The node number of the node.
+     * @return The node number of the left child, or NONE if the node is a leaf.
+     */
+    public int getLeftChild(int node) {
+        return this.leftChild[node];
+    }
+
+    /**
+     * Gets the right child of the given node.
+     * @param node The node number of the node.
+     * @return The node number of the right child, or NONE if the node is a leaf.
+     */
+    public int getRightChild(int node) {
+        return this.rightChild[node];
+    }
+
+    /**
+     * Sets the lookup table over the top levels of the tree, which is told about every node whose children change.
+     * @param decodingTable The lookup table.
+     */
+    void setDecodingTable(DecodingTable decodingTable) {
+        this.decodingTable = decodingTable;
+    }
+
+    /**
+     * Gets the number of bits in each symbol held by the tree.
+     * @return The number of bits in each symbol.
+     */
+    public int getSymbolBits() {
+        return this.symbolBits;
+    }
+}
@@ -0,0 +1,135 @@
+package AdaptiveHuffmanCoding.AdaptiveHuffmanNodes;
+
+/**
+ * A tree for every symbol, each used to code the symbols which follow that symbol, so that the codes follow which
+ * symbols tend to come after which (an order 1 context model). The symbol before the first one is taken to be 0.
+ * <p>
+ * The trees are only made the first time their symbol comes up, and each one starts with room for a few symbols and
+ * grows as it needs to, as most symbols are only ever followed by a few others. Only one tree is used at a time, so
+ * they share the space they use while updating codes and rescaling. Every tree starts as a copy of a starting tree,
+ * which holds only the NYT node or the tree of a dictionary, and rescales its weights or keeps a window in the same way
+ * as the starting tree.
+ */
+public class ContextTrees {
+
+    /**
+     * The largest number of bits in each symbol, which keeps the number of trees to 256.
+     */
+    public static final int MAX_SYMBOL_BITS = 8;
+
+    /**
+     * The number of symbols each tree has room for when it is made.
+     */
+    private static final int INITIAL_SYMBOL_CAPACITY = 8;
+
+    /**
+     * The tree every tree starts as a copy of.
+     */
+    private final AdaptiveHuffmanTree startingTree;
+
+    /**
+     * The tree of each symbol, or null if the symbol has not come up yet.
+     */
+    private final AdaptiveHuffmanTree[] trees;
+
+    /**
+     * The space every tree uses while updating codes and rescaling, with room for a full tree.
+     */
+    private final int[] nodeStack;
+
+    /**
+     * The decoding table of each tree, or null if the trees are only used to encode.
+     */
+    private final DecodingTable[] decodingTables;
+
+    /**
+     * The symbol whose tree codes the next symbol.
+     */
+    private int context;
+
+    /**
+     * Constructs the trees of every context, none of which are made yet.
+     * @param startingTree The tree every tree starts as a copy of, whose rescale threshold and window size they take.
+     *                     Changes to it are only picked up by trees made or reset afterwards.
+     * @param withDecodingTables True to give every tree a decoding table, for decoding.
+     * @throws IllegalArgumentException If the starting tree has more than MAX_SYMBOL_BITS bits in each symbol.
+     */
+    public ContextTrees(AdaptiveHuffmanTree startingTree, boolean withDecodingTables) {
+        if(startingTree.getSymbolBits() > MAX_SYMBOL_BITS)
+            throw new IllegalArgumentException("Context trees need symbols of at most " + MAX_SYMBOL_BITS + " bits");
+
+        int alphabetSize = 1 << startingTree.getSymbolBits();
+
+        this.startingTree = startingTree;
+        this.trees = new AdaptiveHuffmanTree[alphabetSize];
+        this.nodeStack = new int[2 * alphabetSize + 1];
+        this.decodingTables = withDecodingTables ? new DecodingTable[alphabetSize] : null;
+    }
+
+    /**
+     * Gets the tree which codes the next symbol, making it if its context has not come up before.
+     * @return The tree of the current context.
+     */
+    public AdaptiveHuffmanTree getTree() {
+        AdaptiveHuffmanTree tree = this.trees[this.context];
+
+        if(tree == null) {
+            tree = new AdaptiveHuffmanTree(this.startingTree.getSymbolBits(), Math.min(INITIAL_SYMBOL_CAPACITY, this.trees.length), this.nodeStack);
+            this.trees[this.context] = tree;
+
+            if(this.decodingTables != null)
+                this.decodingTables[this.context] = new DecodingTable(tree);
+
+            this.startFromStartingTree(tree);
+        }
+
+        return tree;
+    }
+
+    /**
+     * Gets the decoding table of the tree which codes the next symbol. getTree must have been called for the
+     * current context first.
+     * @return The decoding table of the tree of the current context.
+     */
+    public DecodingTable getDecodingTable() {
+        return this.decodingTables[this.context];
+    }
+
+    /**
+     * Moves on to the context of the symbol which was just coded.
+     * @param symbol The symbol which was just coded, whose tree codes the next symbol.
+     */
+    public void setContext(int symbol) {
+        this.context = symbol;
+    }
+
+    /**
+     * Puts every tree which has been made back to a copy of the starting tree, keeping the room it has grown, and goes
+     * back to the first context.
+     */
+    public void reset() {
+        for(AdaptiveHuffmanTree tree : this.trees) {
+            if(tree != null)
+                this.startFromStartingTree(tree);
+        }
+
+        this.context = 0;
+    }
+
+    /**
+     * Makes a tree forget old symbols the way the starting tree does, and copies the starting tree into it.
+     * @param tree The tree to start.
+     */
+    private void startFromStartingTree(AdaptiveHuffmanTree tree) {
+        //rescaling is turned off first, as a tree cannot rescale and keep a window at once
+        tree.setRescaleThreshold(AdaptiveHuffmanTree.NO_RESCALING);
+        tree.setWindowSize(this.startingTree.getWindowSize());
+        tree.setRescaleThreshold(this.startingTree.getRescaleThreshold());
+
+        //a dictionary's tree is copied, and a tree holding only the NYT node is only reset
+        if(this.startingTree.rootIsNYT())
+            tree.reset();
+        else
+            tree.copyFrom(this.startingTree);
+    }
+}
@@ -0,0 +1,144 @@
+package AdaptiveHuffmanCoding.AdaptiveHuffmanNodes;
+
+import java.util.Arrays;
+
+/**
+ * A lookup table of the top levels of an adaptive Huffman tree, used to decode several bits at a time.
+ * Each entry is indexed by the next lookupBits bits of the input and holds the node reached by following those bits
+ * down from the root, stopping early at a leaf, along with the number of bits that were followed.
+ * The tree tells the table about every node whose children change, and only the entries whose path goes through
+ * that node are thrown away. Those entries are rebuilt the next time they are looked up.
+ */
+public class DecodingTable {
+
+    /**
+     * The default number of bits looked up at a time.
+     */
+    public static final int DEFAULT_LOOKUP_BITS = 8;
+
+    /**
+     * Value of an entry which needs to be rebuilt.
+     */
+    private static final int INVALID = -1;
+
+    /**
+     * The number of bits used to hold the length in an entry.
+     */
+    private static final int LENGTH_BITS = 5;
+
+    /**
+     * The tree the table looks up.
+     */
+    private final AdaptiveHuffmanTree tree;
+
+    /**
+     * The number of bits looked up at a time, and so the number of levels of the tree the table covers.
+     */
+    private final int lookupBits;
+
+    /**
+     * The entries of the table, each holding a node number and the number of bits followed to reach it.
+     */
+    private final int[] entries;
+
+    /**
+     * Constructs a table over the top levels of the given tree, covering the default number of bits.
+     * @param tree The tree to look up.
+     */
+    public DecodingTable(AdaptiveHuffmanTree tree) {
+        this(tree, DEFAULT_LOOKUP_BITS);
+    }
+
+    /**
+     * Constructs a table over the top levels of the given tree.
+     * @param tree The tree to look up.
+     * @param lookupBits The number of bits looked up at a time, between 1 and 16.
+     */
+    public DecodingTable(AdaptiveHuffmanTree tree, int lookupBits) {
+        if(lookupBits < 1 || lookupBits > 16)
+            throw new IllegalArgumentException("Lookup bits must be between 1 and 16");
+
+        this.tree = tree;
+        this.lookupBits = lookupBits;
+        this.entries = new int[1 << lookupBits];
+
+        Arrays.fill(this.entries, INVALID);
+        tree.setDecodingTable(this);
+    }
+
+    /**
+     * Looks up the node reached by following the given bits down from the root of the tree.
+     * @param bits The next lookupBits bits of the input, with the first bit being the most significant.
+     * @return The entry for the bits, to be read with getNode and getLength.
+     */
+    public int lookup(int bits) {
+        int entry = this.entries[bits];
+
+        if(entry == INVALID) {
+            entry = this.buildEntry(bits);
+            this.entries[bits] = entry;
+        }
+
+        return entry;
+    }
+
+    /**
+     * Gets the node number held in an entry.
+     * @param entry The entry returned by lookup.
+     * @return The node reached, which is either a leaf or a node lookupBits levels below the root.
+     */
+    public static int getNode(int entry) {
+        return entry >>> LENGTH_BITS;
+    }
+
+    /**
+     * Gets the number of bits held in an entry.
+     * @param entry The entry returned by lookup.
+     * @return The number of bits followed to reach the node of the entry.
+     */
+    public static int getLength(int entry) {
+        return entry & ((1 << LENGTH_BITS) - 1);
+    }
+
+    /**
+     * Gets the number of bits looked up at a time.
+     * @return The number of bits looked up at a time.
+     */
+    public int getLookupBits() {
+        return this.lookupBits;
+    }
+
+    /**
+     * Follows the given bits down from the root of the tree until a leaf is reached or all of the bits have been used.
+     * @param bits The bits to follow.
+     * @return The entry for the bits.
+     */
+    private int buildEntry(int bits) {
+        int node = this.tree.getRoot();
+        int length = 0;
+
+        while(!this.tree.isLeaf(node) && length < this.lookupBits) {
+            node = this.tree.getNextNode(node, (bits >>> (this.lookupBits - 1 - length)) & 1);
+            length++;
+        }
+
+        return (node << LENGTH_BITS) | length;
+    }
+
+    /**
+     * Throws away every entry whose path goes through the given node, after the node's children have changed.
+     * Nodes more than lookupBits - 1 levels below the root do not affect the table.
+     * @param node The node number of the node which changed.
+     */
+    void invalidate(int node) {
+        //the depth of the node in the tree, which is the length of its code
+        int depth = this.tree.getCodeLength(node);
+
+        if(depth >= this.lookupBits)
+            return;
+
+        //every entry starting with the code of the node goes through it
+        int firstEntry = (int) this.tree.getCode(node) << (this.lookupBits - depth);
+        Arrays.fill(this.entries, firstEntry, firstEntry + (1 << (this.lookupBits - depth)), INVALID);
+    }
+}
@@ -0,0 +1,193 @@
+package AdaptiveHuffmanCoding;
+
+import AdaptiveHuffmanCoding.BitStreams.BitOutputStream;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output stream which compresses the bytes written to it with Adaptive Huffman Encoding and writes the result to
+ * another output stream. Only a fixed size buffer is held, so any amount of data can be compressed as it arrives.
+ * <p>
+ * A long running compression can be checkpointed, and carried on after a restart by a new stream made from the
+ * checkpoint, which appends to the compressed data exactly as it was when the checkpoint was taken. The result is the
+ * same as if the stream had never stopped.
+ */
+public class AdaptiveHuffmanOutputStream extends FilterOutputStream {
+
+    /**
+     * The encoder which holds the tree used for the compression.
+     */
+    private final AdaptiveHuffmanEncoder encoder;
+
+    /**
+     * The stream the encoded bits are written to, which writes to the underlying stream.
+     */
+    private final BitOutputStream bitStream;
+
+    /**
+     * Whether the end of the encoding has been written.
+     */
+    private boolean finished;
+
+    /**
+     * Constructs a stream which compresses with 8 bit tree node representation.
+     * @param out The stream to write the compressed data to.
+     */
+    public AdaptiveHuffmanOutputStream(OutputStream out) {
+        this(out, 8);
+    }
+
+    /**
+     * Constructs a stream which compresses with the given tree node representation.
+     * @param out The stream to write the compressed data to.
+     * @param numberOfBitsToUse The number of bits from a byte to use for each value handed to the tree.
+     */
+    public AdaptiveHuffmanOutputStream(OutputStream out, int numberOfBitsToUse) {
+        super(out);
+        this.encoder = new AdaptiveHuffmanEncoder(numberOfBitsToUse);
+        this.bitStream = new BitOutputStream(out);
+    }
+
+    /**
+     * Constructs a stream which carries on a compression from a checkpoint. The compressed data written before the
+     * checkpoint must already be in the underlying stream, with nothing written after it.
+     * @param out The stream to write the rest of the compressed data to.
+     * @param numberOfBitsToUse The number of bits from a byte the checkpointed stream used for each value.
+     * @param checkpoint The checkpoint written by checkpoint.
+     * @throws IOException If the checkpoint could not be read, is damaged, or is for a different number of bits.
+     */
+    public AdaptiveHuffmanOutputStream(OutputStream out, int numberOfBitsToUse, DataInput checkpoint) throws IOException {
+        this(out, numberOfBitsToUse);
+        this.encoder.readSnapshot(checkpoint);
+
+        //the bits of the incomplete last byte were held back from the compressed data, so they are written again
+        int partialBitCount = checkpoint.readUnsignedByte();
+        int partialByte = checkpoint.readUnsignedByte();
+
+        if(partialBitCount > 7 || partialByte >>> partialBitCount != 0)
+            throw new IOException("Snapshot is damaged");
+
+        this.bitStream.writeBits(partialByte, partialBitCount);
+    }
+
+    /**
+     * Makes the tree halve its weights whenever the weight of its root reaches the given threshold. The stream has no
+     * header to record it in, so the input stream reading the data must be given the same threshold. It should be set
+     * before anything is written.
+     * @param rescaleThreshold The weight of the root at which the weights are halved, at least 2, or
+     *                         AdaptiveHuffmanTree.NO_RESCALING to never rescale.
+     * @throws IllegalArgumentException If the threshold is below 2 and is not NO_RESCALING.
+     * @throws IllegalStateException If the stream keeps a window.
+     */
+    public void setRescaleThreshold(int rescaleThreshold) {
+        this.encoder.setRescaleThreshold(rescaleThreshold);
+    }
+
+    /**
+     * Makes the tree hold only the given number of most recent symbols. The input stream reading the data must be given
+     * the same window size. It should be set before anything is written. A stream resumed from a checkpoint takes its
+     * window from the checkpoint.
+     * @param windowSize The number of symbols in the window, between 1 and AdaptiveHuffmanTree.MAX_WINDOW_SIZE, or
+     *                   AdaptiveHuffmanTree.NO_WINDOW to keep every symbol.
+     * @throws IllegalArgumentException If the window size is out of range.
+     * @throws IllegalStateException If the stream rescales its weights.
+     */
+    public void setWindowSize(int windowSize) {
+        this.encoder.setWindowSize(windowSize);
+    }
+
+    /**
+     * Compresses a single byte.
+     * @param b The byte to compress, in the lowest 8 bits.
+     * @throws IOException If the compressed data could not be written or the stream has been finished.
+     */
+    @Override
+    public void write(int b) throws IOException {
+        this.ensureNotFinished();
+        this.encoder.encodeChar(b & 0xff, this.bitStream);
+    }
+
+    /**
+     * Compresses part of an array of bytes.
+     * @param b The array of bytes.
+     * @param off The index of the first byte to compress.
+     * @param len The number of bytes to compress.
+     * @throws IOException If the compressed data could not be written or the stream has been finished.
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if(off < 0 || len < 0 || off + len > b.length)
+            throw new IndexOutOfBoundsException();
+
+        this.ensureNotFinished();
+
+        for(int i = off; i < off + len; i++) {
+            this.encoder.encodeChar(b[i] & 0xff, this.bitStream);
+        }
+    }
+
+    /**
+     * Writes every complete byte of compressed data to the underlying stream and flushes it. The bits of the last
+     * incomplete byte are held back until more data is written or the stream is finished.
+     * @throws IOException If the compressed data could not be written.
+     */
+    @Override
+    public void flush() throws IOException {
+        this.bitStream.flush();
+    }
+
+    /**
+     * Flushes the stream and writes a checkpoint of it, from which the compression can be carried on by a new stream
+     * if this one is lost. The checkpoint holds the tree, so it is about 8 bytes for every node.
+     * @param checkpoint The stream to write the checkpoint to.
+     * @throws IOException If the compressed data or the checkpoint could not be written or the stream has been
+     *                     finished.
+     */
+    public void checkpoint(DataOutput checkpoint) throws IOException {
+        this.ensureNotFinished();
+        this.flush();
+
+        this.encoder.writeSnapshot(checkpoint);
+        checkpoint.writeByte((8 - this.bitStream.getBitsToByteBoundary()) & 7);
+        checkpoint.writeByte(this.bitStream.getPartialByte());
+    }
+
+    /**
+     * Ends the compressed data and writes all of it to the underlying stream without closing it.
+     * Nothing more can be written to this stream afterwards.
+     * @throws IOException If the compressed data could not be written.
+     */
+    public void finish() throws IOException {
+        if(!this.finished) {
+            this.encoder.finishEncoding(this.bitStream);
+            this.bitStream.flush();
+            this.finished = true;
+        }
+    }
+
+    /**
+     * Finishes the compressed data and closes the underlying stream.
+     * @throws IOException If the compressed data could not be written or the stream could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            this.finish();
+        } finally {
+            this.out.close();
+        }
+    }
+
+    /**
+     * Checks that the stream can still be written to.
+     * @throws IOException If the stream has already been finished.
+     */
+    private void ensureNotFinished() throws IOException {
+        if(this.finished)
+            throw new IOException("Stream has already been finished");
+    }
+}
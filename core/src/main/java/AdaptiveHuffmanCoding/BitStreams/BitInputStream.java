@@ -0,0 +1,221 @@
+package AdaptiveHuffmanCoding.BitStreams;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads individual bits and groups of bits from a channel, most significant bit first.
+ * Bytes are read from the channel into a buffer in blocks and moved into a 64 bit accumulator, a whole word at a time
+ * where possible, from which the bits are taken with shifts and masks. A stream can also read straight from a buffer in
+ * memory, with no channel behind it.
+ */
+public class BitInputStream implements Closeable {
+
+    /**
+     * The default size of the byte buffer in bytes.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * The largest number of bits that can be read in one call.
+     */
+    public static final int MAX_BITS_PER_READ = 56;
+
+    /**
+     * The channel the bytes are read from, or null if the bytes are read straight from a buffer in memory.
+     */
+    private final ReadableByteChannel channel;
+
+    /**
+     * The buffer of bytes read from the channel, kept ready for reading.
+     */
+    protected ByteBuffer buffer;
+
+    /**
+     * The buffer in memory the bytes are read from, if the stream was made from one, and its position when the stream
+     * was made.
+     */
+    private final ByteBuffer source;
+    private final int sourceStart;
+
+    /**
+     * The bits which have been taken from the buffer but not read yet, held in the lowest bits of the accumulator.
+     */
+    private long accumulator;
+
+    /**
+     * The number of unread bits in the accumulator.
+     */
+    private int bitsInAccumulator;
+
+    /**
+     * Whether the end of the channel has been reached.
+     */
+    private boolean endOfStream;
+
+    /**
+     * Constructs a bit input stream reading from a stream, with the default buffer size.
+     * @param in The stream to read the bytes from.
+     */
+    public BitInputStream(InputStream in) {
+        this(Channels.newChannel(in), ByteBuffer.allocate(DEFAULT_BUFFER_SIZE));
+    }
+
+    /**
+     * Constructs a bit input stream reading from a channel through the given buffer. The buffer is cleared and can be
+     * reused for another bit input stream once this one has been closed.
+     * @param channel The channel to read the bytes from.
+     * @param buffer The buffer to read the bytes into.
+     */
+    public BitInputStream(ReadableByteChannel channel, ByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.source = null;
+        this.sourceStart = 0;
+
+        //the buffer starts with nothing left to read
+        this.buffer.clear().flip();
+    }
+
+    /**
+     * Constructs a bit input stream reading straight from a buffer in memory, from its position up to its limit. The
+     * position of the buffer is moved past the bytes read from when the stream is closed.
+     * @param source The buffer to read the bytes from.
+     */
+    public BitInputStream(ByteBuffer source) {
+        this.channel = null;
+        this.source = source;
+        this.sourceStart = source.position();
+
+        //words are always read most significant byte first, whatever the byte order of the source
+        this.buffer = source.slice();
+    }
+
+    /**
+     * Reads a single bit.
+     * @return The bit, either 0 or 1, or -1 if the end of the channel has been reached.
+     * @throws IOException If the channel could not be read.
+     */
+    public int readBit() throws IOException {
+        if(this.bitsInAccumulator == 0 && !this.refill())
+            return -1;
+
+        this.bitsInAccumulator--;
+        return (int) (this.accumulator >>> this.bitsInAccumulator) & 1;
+    }
+
+    /**
+     * Reads the given number of bits, with the first bit read being the most significant.
+     * @param length The number of bits to read, between 0 and MAX_BITS_PER_READ.
+     * @return The bits that were read, or -1 if there were fewer bits than that left in the channel.
+     * @throws IOException If the channel could not be read.
+     */
+    public long readBits(int length) throws IOException {
+        if(this.bitsInAccumulator < length) {
+            this.refill();
+            if(this.bitsInAccumulator < length)
+                return -1;
+        }
+
+        this.bitsInAccumulator -= length;
+        return (this.accumulator >>> this.bitsInAccumulator) & ((1L << length) - 1);
+    }
+
+    /**
+     * Looks at the given number of bits without reading them. If fewer bits than that are left in the channel then
+     * the bits that are left are followed by 0s.
+     * @param length The number of bits to look at, between 0 and 32.
+     * @return The next bits, with the first bit being the most significant.
+     * @throws IOException If the channel could not be read.
+     */
+    public int peekBits(int length) throws IOException {
+        if(this.bitsInAccumulator < length)
+            this.refill();
+
+        //the mask which selects the bits looked at
+        long mask = (1L << length) - 1;
+
+        if(this.bitsInAccumulator >= length)
+            return (int) ((this.accumulator >>> (this.bitsInAccumulator - length)) & mask);
+        else
+            return (int) ((this.accumulator << (length - this.bitsInAccumulator)) & mask);
+    }
+
+    /**
+     * Skips over bits which have been looked at with peekBits.
+     * @param length The number of bits to skip, no more than the number that were looked at.
+     * @return True if the bits were skipped, false if fewer bits than that were left in the channel, in which case
+     * nothing is skipped.
+     */
+    public boolean skipBits(int length) {
+        if(this.bitsInAccumulator < length)
+            return false;
+
+        this.bitsInAccumulator -= length;
+        return true;
+    }
+
+    /**
+     * Tops the accumulator up from the buffer, reading more of the channel into the buffer when it runs out. An empty
+     * accumulator is loaded with a whole word, otherwise as many whole bytes as it can hold are added.
+     * @return True if any bits are available to be read, false if the end of the channel has been reached.
+     * @throws IOException If the channel could not be read.
+     */
+    private boolean refill() throws IOException {
+        if(this.bitsInAccumulator == 0 && this.buffer.remaining() >= 8) {
+            this.accumulator = this.buffer.getLong();
+            this.bitsInAccumulator = 64;
+            return true;
+        }
+
+        while(this.bitsInAccumulator <= 56) {
+            if(!this.buffer.hasRemaining() && !this.fillBuffer())
+                break;
+
+            this.accumulator = (this.accumulator << 8) | (this.buffer.get() & 0xff);
+            this.bitsInAccumulator += 8;
+        }
+
+        return this.bitsInAccumulator > 0;
+    }
+
+    /**
+     * Reads the next block of the channel into the buffer.
+     * @return True if any bytes were read, false if the end of the channel has been reached.
+     * @throws IOException If the channel could not be read.
+     */
+    protected boolean fillBuffer() throws IOException {
+        //a buffer in memory has nothing behind it
+        if(this.channel == null)
+            return false;
+
+        this.buffer.clear();
+
+        //a channel may return no bytes without having reached its end
+        while(!this.endOfStream && this.buffer.position() == 0) {
+            if(this.channel.read(this.buffer) < 0)
+                this.endOfStream = true;
+        }
+
+        this.buffer.flip();
+
+        return this.buffer.hasRemaining();
+    }
+
+    /**
+     * Closes the underlying channel. A buffer in memory is left positioned after the last byte that any bits were read
+     * from, so whatever follows the bits can be read next.
+     * @throws IOException If the channel could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if(this.source != null)
+            this.source.position(this.sourceStart + this.buffer.position() - this.bitsInAccumulator / 8);
+        else
+            this.channel.close();
+    }
+}
@@ -0,0 +1,227 @@
+package AdaptiveHuffmanCoding.BitStreams;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes individual codes of up to 64 bits to a channel.
+ * Bits are packed into a 64 bit accumulator, most significant bit first, and each full accumulator is copied into a
+ * byte buffer as a whole word. The buffer is only handed to the underlying channel once it is full. A stream can also
+ * write straight into a buffer in memory, with no channel behind it.
+ */
+public class BitOutputStream implements Flushable, Closeable {
+
+    /**
+     * The default size of the byte buffer in bytes.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * The channel the bytes are written to, or null if the bytes are written straight into a buffer in memory.
+     */
+    private final WritableByteChannel channel;
+
+    /**
+     * The stream the channel writes to, if the bit stream was made from one, so that it can be flushed.
+     */
+    private final OutputStream out;
+
+    /**
+     * The buffer of whole bytes waiting to be written to the channel.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The buffer in memory the bytes are written into, if the stream was made from one, and its position when the
+     * stream was made.
+     */
+    private final ByteBuffer destination;
+    private final int destinationStart;
+
+    /**
+     * The bits which have not been copied into the buffer yet, held in the lowest bits of the accumulator.
+     */
+    private long accumulator;
+
+    /**
+     * The number of bits currently held in the accumulator. Always less than 64 between calls.
+     */
+    private int bitsInAccumulator;
+
+    /**
+     * Constructs a bit output stream writing to a stream, with the default buffer size.
+     * @param out The stream to write the bytes to.
+     */
+    public BitOutputStream(OutputStream out) {
+        this(Channels.newChannel(out), ByteBuffer.allocate(DEFAULT_BUFFER_SIZE), out);
+    }
+
+    /**
+     * Constructs a bit output stream writing to a channel through the given buffer. The buffer is cleared and can be
+     * reused for another bit output stream once this one has been closed.
+     * @param channel The channel to write the bytes to.
+     * @param buffer The buffer to collect the bytes in, which must hold at least 8 bytes.
+     */
+    public BitOutputStream(WritableByteChannel channel, ByteBuffer buffer) {
+        this(channel, buffer, null);
+    }
+
+    /**
+     * Constructs a bit output stream writing straight into a buffer in memory, from its position up to its limit.
+     * The position of the buffer is moved past the bytes written each time the stream is flushed or closed.
+     * @param destination The buffer to write the bytes into.
+     * @throws BufferOverflowException From any of the write methods, if the bytes do not fit in the buffer.
+     */
+    public BitOutputStream(ByteBuffer destination) {
+        this.channel = null;
+        this.out = null;
+        this.destination = destination;
+        this.destinationStart = destination.position();
+
+        //words are always written most significant byte first, whatever the byte order of the destination
+        this.buffer = destination.slice();
+    }
+
+    /**
+     * Constructs a bit output stream.
+     * @param channel The channel to write the bytes to.
+     * @param buffer The buffer to collect the bytes in.
+     * @param out The stream the channel writes to, or null if there is none.
+     */
+    private BitOutputStream(WritableByteChannel channel, ByteBuffer buffer, OutputStream out) {
+        if(buffer.capacity() < 8)
+            throw new IllegalArgumentException("Buffer must hold at least 8 bytes");
+
+        this.channel = channel;
+        this.buffer = buffer;
+        this.out = out;
+        this.destination = null;
+        this.destinationStart = 0;
+        this.buffer.clear();
+    }
+
+    /**
+     * Writes the lowest bits of the given value, with the most significant of those bits written first.
+     * @param bits The bits to write.
+     * @param length The number of bits to write, between 0 and 64.
+     * @throws IOException If the buffer could not be written to the channel.
+     */
+    public void writeBits(long bits, int length) throws IOException {
+        //the number of bits that can still fit in the accumulator
+        int space = 64 - this.bitsInAccumulator;
+
+        //clear any bits above the ones to be written
+        if(length < 64)
+            bits &= (1L << length) - 1;
+
+        if(length < space) {
+            this.accumulator = (this.accumulator << length) | bits;
+            this.bitsInAccumulator += length;
+        } else {
+            //fill the rest of the accumulator with the top bits of the value and write it out as a whole word
+            int remaining = length - space;
+            long word = space == 64 ? bits : (this.accumulator << space) | (bits >>> remaining);
+            this.writeWord(word);
+
+            //keep the bits which did not fit
+            this.accumulator = bits;
+            this.bitsInAccumulator = remaining;
+        }
+    }
+
+    /**
+     * Writes a single bit.
+     * @param bit The bit to write, either 0 or 1.
+     * @throws IOException If the buffer could not be written to the channel.
+     */
+    public void writeBit(int bit) throws IOException {
+        this.writeBits(bit, 1);
+    }
+
+    /**
+     * Gets the number of bits that need to be written to finish the current byte.
+     * @return The number of bits left in the current byte, or 0 if the bits written so far fill whole bytes.
+     */
+    public int getBitsToByteBoundary() {
+        return (8 - (this.bitsInAccumulator & 7)) & 7;
+    }
+
+    /**
+     * Gets the bits of the current incomplete byte, which flush holds back.
+     * @return The bits written since the last byte boundary, in the lowest bits.
+     */
+    public int getPartialByte() {
+        return (int) (this.accumulator & ((1L << (this.bitsInAccumulator & 7)) - 1));
+    }
+
+    /**
+     * Copies a full accumulator into the buffer, writing the buffer to the channel first if it is full.
+     * @param word The 64 bits to copy.
+     * @throws IOException If the buffer could not be written to the channel.
+     */
+    private void writeWord(long word) throws IOException {
+        if(this.buffer.remaining() < 8)
+            this.flushBuffer();
+
+        this.buffer.putLong(word);
+    }
+
+    /**
+     * Writes the contents of the buffer to the channel.
+     * @throws IOException If the buffer could not be written to the channel.
+     * @throws BufferOverflowException If the stream writes into a buffer in memory, which cannot be emptied.
+     */
+    private void flushBuffer() throws IOException {
+        if(this.channel == null)
+            throw new BufferOverflowException();
+
+        this.buffer.flip();
+        while(this.buffer.hasRemaining())
+            this.channel.write(this.buffer);
+        this.buffer.clear();
+    }
+
+    /**
+     * Writes every complete byte held so far to the channel. Bits which do not yet make a complete byte are kept.
+     * @throws IOException If the bytes could not be written to the channel.
+     */
+    @Override
+    public void flush() throws IOException {
+        //move the whole bytes in the accumulator into the buffer
+        while(this.bitsInAccumulator >= 8) {
+            if(!this.buffer.hasRemaining())
+                this.flushBuffer();
+            this.bitsInAccumulator -= 8;
+            this.buffer.put((byte) (this.accumulator >>> this.bitsInAccumulator));
+        }
+
+        if(this.destination != null) {
+            this.destination.position(this.destinationStart + this.buffer.position());
+            return;
+        }
+
+        this.flushBuffer();
+
+        if(this.out != null)
+            this.out.flush();
+    }
+
+    /**
+     * Fills the last byte with 0s if it is incomplete, writes everything to the channel and closes it.
+     * @throws IOException If the bytes could not be written or the channel could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        this.writeBits(0, this.getBitsToByteBoundary());
+        this.flush();
+
+        if(this.channel != null)
+            this.channel.close();
+    }
+}
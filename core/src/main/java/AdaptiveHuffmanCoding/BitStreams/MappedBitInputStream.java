@@ -0,0 +1,55 @@
+package AdaptiveHuffmanCoding.BitStreams;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A bit input stream which reads a file through sliding memory mapped windows. Bits are taken straight from each
+ * mapped window instead of being copied into a buffer first.
+ */
+public class MappedBitInputStream extends BitInputStream {
+
+    /**
+     * The windows of the file being read.
+     */
+    private final MappedFileWindows windows;
+
+    /**
+     * Constructs a bit input stream reading the given file with the default window size.
+     * @param channel The channel of the file to read, from its current position.
+     * @throws IOException If the position of the channel could not be found.
+     */
+    public MappedBitInputStream(FileChannel channel) throws IOException {
+        this(channel, MappedFileWindows.DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Constructs a bit input stream reading the given file.
+     * @param channel The channel of the file to read, from its current position.
+     * @param windowSize The size in bytes of each mapped window.
+     * @throws IOException If the position of the channel could not be found.
+     */
+    public MappedBitInputStream(FileChannel channel, int windowSize) throws IOException {
+        //nothing is mapped until the first bits are read
+        super(channel, ByteBuffer.allocate(0));
+        this.windows = new MappedFileWindows(channel, windowSize);
+    }
+
+    /**
+     * Moves on to the next window of the file.
+     * @return True if any bytes are left in the file, false if the end of the file has been reached.
+     * @throws IOException If the file could not be mapped.
+     */
+    @Override
+    protected boolean fillBuffer() throws IOException {
+        MappedByteBuffer window = this.windows.nextWindow();
+
+        if(window == null)
+            return false;
+
+        this.buffer = window;
+        return this.buffer.hasRemaining();
+    }
+}
@@ -0,0 +1,75 @@
+package AdaptiveHuffmanCoding.BitStreams;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Maps a file into memory one window at a time, from the position of its channel to the end of the file, so that files
+ * larger than a single mapping can be read straight from the mapped memory without copying them into the heap.
+ */
+public class MappedFileWindows {
+
+    /**
+     * The default size in bytes of each mapped window.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * The channel of the file being mapped.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The size in bytes of each window.
+     */
+    private final int windowSize;
+
+    /**
+     * The position in the file of the start of the next window.
+     */
+    private long position;
+
+    /**
+     * Constructs the windows of a file with the default window size.
+     * @param channel The channel of the file to map.
+     * @throws IOException If the position of the channel could not be found.
+     */
+    public MappedFileWindows(FileChannel channel) throws IOException {
+        this(channel, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Constructs the windows of a file.
+     * @param channel The channel of the file to map.
+     * @param windowSize The size in bytes of each window.
+     * @throws IOException If the position of the channel could not be found.
+     */
+    public MappedFileWindows(FileChannel channel, int windowSize) throws IOException {
+        if(windowSize < 8)
+            throw new IllegalArgumentException("Window size must be at least 8 bytes");
+
+        this.channel = channel;
+        this.windowSize = windowSize;
+        this.position = channel.position();
+    }
+
+    /**
+     * Maps the next window of the file. The window before it is no longer used by this object and is unmapped once it
+     * has been garbage collected.
+     * @return The next window of the file, or null if the end of the file has been reached.
+     * @throws IOException If the file could not be mapped.
+     */
+    public MappedByteBuffer nextWindow() throws IOException {
+        //the number of bytes left in the file
+        long remaining = this.channel.size() - this.position;
+
+        if(remaining <= 0)
+            return null;
+
+        MappedByteBuffer window = this.channel.map(FileChannel.MapMode.READ_ONLY, this.position, Math.min(remaining, this.windowSize));
+        this.position += window.capacity();
+
+        return window;
+    }
+}
@@ -0,0 +1,226 @@
+package AdaptiveHuffmanCoding.BitStreams;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads a channel ahead of its consumer on a thread of its own, so that waiting for the channel overlaps with the work
+ * the consumer does on the blocks it has already been given. The reading thread fills blocks from a fixed set of
+ * buffers and hands them over through a ring, and the consumer gives each block back through another ring once it is
+ * done with it, so nothing is allocated after the reader has been constructed.
+ * <p>
+ * Blocks can be taken whole with nextBlock and release, or the reader can be read as a channel, which copies the
+ * bytes out of the blocks.
+ */
+public class PipelinedReader implements ReadableByteChannel {
+
+    /**
+     * The default number of blocks which can be read ahead.
+     */
+    public static final int DEFAULT_DEPTH = 4;
+
+    /**
+     * The block handed over after the last one, which holds nothing.
+     */
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    /**
+     * The channel being read.
+     */
+    private final ReadableByteChannel channel;
+
+    /**
+     * The blocks which have been read and not handed to the consumer yet, and the blocks which are ready to be read
+     * into again.
+     */
+    private final SpscRingBuffer<ByteBuffer> filledBlocks, freeBlocks;
+
+    /**
+     * The thread which reads the channel.
+     */
+    private final Thread readingThread;
+
+    /**
+     * Whether the reader has been closed, which stops the reading thread.
+     */
+    private volatile boolean closed;
+
+    /**
+     * The exception the reading thread stopped with, if it did, which is thrown to the consumer after the last block.
+     */
+    private volatile IOException failure;
+
+    /**
+     * The block the channel methods are reading from, if there is one.
+     */
+    private ByteBuffer currentBlock;
+
+    /**
+     * Whether the consumer has been handed the end of the channel.
+     */
+    private boolean ended;
+
+    /**
+     * Constructs a reader which reads ahead by the default number of blocks, and starts reading.
+     * @param channel The channel to read, from its current position.
+     * @param blockSize The size in bytes of each block.
+     */
+    public PipelinedReader(ReadableByteChannel channel, int blockSize) {
+        this(channel, blockSize, DEFAULT_DEPTH);
+    }
+
+    /**
+     * Constructs a reader and starts reading.
+     * @param channel The channel to read, from its current position.
+     * @param blockSize The size in bytes of each block.
+     * @param depth The number of blocks, which is the most the reading thread can get ahead of the consumer.
+     */
+    public PipelinedReader(ReadableByteChannel channel, int blockSize, int depth) {
+        if(depth < 1)
+            throw new IllegalArgumentException("Depth must be at least 1");
+
+        this.channel = channel;
+
+        //every block fits in either ring, along with the end
+        this.filledBlocks = new SpscRingBuffer<ByteBuffer>(depth + 1);
+        this.freeBlocks = new SpscRingBuffer<ByteBuffer>(depth);
+
+        for(int i = 0; i < depth; i++)
+            this.freeBlocks.offer(ByteBuffer.allocateDirect(blockSize));
+
+        this.readingThread = new Thread(this::readBlocks, "AdaptiveHuffman reader");
+        this.readingThread.setDaemon(true);
+        this.readingThread.start();
+    }
+
+    /**
+     * Reads blocks from the channel until it ends, the reader is closed or the channel fails, and then hands over the
+     * end. Every block is filled before it is handed over, apart from the last.
+     */
+    private void readBlocks() {
+        try {
+            //whether the end of the channel has been reached
+            boolean endOfChannel = false;
+
+            while(!endOfChannel) {
+                ByteBuffer block;
+                int attempt = 0;
+
+                while((block = this.freeBlocks.poll()) == null) {
+                    if(this.closed)
+                        return;
+                    SpscRingBuffer.backOff(attempt++);
+                }
+
+                block.clear();
+                while(block.hasRemaining() && !endOfChannel)
+                    endOfChannel = this.channel.read(block) < 0;
+                block.flip();
+
+                if(block.hasRemaining())
+                    this.filledBlocks.offer(block);
+            }
+        } catch (IOException e) {
+            this.failure = e;
+        }
+
+        this.filledBlocks.offer(END);
+    }
+
+    /**
+     * Takes the next block read from the channel, waiting for it if it has not been read yet. The block must be given
+     * back with release once it is no longer needed.
+     * @return The block, ready to be read from, or null at the end of the channel.
+     * @throws IOException If the channel could not be read, once every block read before the failure has been taken.
+     */
+    public ByteBuffer nextBlock() throws IOException {
+        if(this.closed)
+            throw new ClosedChannelException();
+
+        if(this.ended)
+            return null;
+
+        ByteBuffer block;
+        int attempt = 0;
+
+        while((block = this.filledBlocks.poll()) == null) {
+            if(Thread.currentThread().isInterrupted())
+                throw new InterruptedIOException("Interrupted while waiting for the channel to be read");
+            SpscRingBuffer.backOff(attempt++);
+        }
+
+        if(block == END) {
+            this.ended = true;
+
+            if(this.failure != null)
+                throw this.failure;
+
+            return null;
+        }
+
+        return block;
+    }
+
+    /**
+     * Gives a block taken with nextBlock back, so that it can be read into again.
+     * @param block The block.
+     */
+    public void release(ByteBuffer block) {
+        this.freeBlocks.offer(block);
+    }
+
+    /**
+     * Reads bytes into the given buffer from the blocks read ahead.
+     * @param dst The buffer to read into.
+     * @return The number of bytes read, or -1 at the end of the channel.
+     * @throws IOException If the channel could not be read.
+     */
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        if(this.currentBlock == null || !this.currentBlock.hasRemaining()) {
+            if(this.currentBlock != null)
+                this.release(this.currentBlock);
+
+            if((this.currentBlock = this.nextBlock()) == null)
+                return -1;
+        }
+
+        //as much of the block as fits
+        int length = Math.min(dst.remaining(), this.currentBlock.remaining());
+        ByteBuffer part = this.currentBlock.duplicate();
+        part.limit(part.position() + length);
+        dst.put(part);
+        this.currentBlock.position(part.position());
+
+        return length;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !this.closed;
+    }
+
+    /**
+     * Stops the reading thread and closes the channel.
+     * @throws IOException If the channel could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if(this.closed)
+            return;
+
+        this.closed = true;
+
+        //closing the channel also stops a read which is waiting on it
+        this.channel.close();
+
+        try {
+            this.readingThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package AdaptiveHuffmanCoding.BitStreams;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes to a channel on a thread of its own, so that waiting for the channel overlaps with the work the producer does
+ * on the bytes that come next. Bytes written to the writer are copied into blocks from a fixed set of buffers, and each
+ * block is handed to the writing thread through a ring once it is full and handed back through another ring once it
+ * has been written, so nothing is allocated after the writer has been constructed.
+ * <p>
+ * A failure of the channel is thrown by the next write after it, or by close, which waits for every block to be
+ * written.
+ */
+public class PipelinedWriter implements WritableByteChannel {
+
+    /**
+     * The default number of blocks which can wait to be written.
+     */
+    public static final int DEFAULT_DEPTH = 4;
+
+    /**
+     * The block handed over after the last one, which holds nothing.
+     */
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    /**
+     * The channel being written to.
+     */
+    private final WritableByteChannel channel;
+
+    /**
+     * The blocks which are full and waiting to be written, and the blocks which are ready to be filled again.
+     */
+    private final SpscRingBuffer<ByteBuffer> filledBlocks, freeBlocks;
+
+    /**
+     * The thread which writes to the channel.
+     */
+    private final Thread writingThread;
+
+    /**
+     * The exception the writing thread stopped with, if it did.
+     */
+    private volatile IOException failure;
+
+    /**
+     * The block being filled, if there is one.
+     */
+    private ByteBuffer currentBlock;
+
+    /**
+     * Whether the writer has been closed.
+     */
+    private boolean closed;
+
+    /**
+     * Constructs a writer which lets the default number of blocks wait to be written, and starts its thread.
+     * @param channel The channel to write to, from its current position.
+     * @param blockSize The size in bytes of each block.
+     */
+    public PipelinedWriter(WritableByteChannel channel, int blockSize) {
+        this(channel, blockSize, DEFAULT_DEPTH);
+    }
+
+    /**
+     * Constructs a writer and starts its thread.
+     * @param channel The channel to write to, from its current position.
+     * @param blockSize The size in bytes of each block.
+     * @param depth The number of blocks, which is the most the producer can get ahead of the writing thread.
+     */
+    public PipelinedWriter(WritableByteChannel channel, int blockSize, int depth) {
+        if(depth < 1)
+            throw new IllegalArgumentException("Depth must be at least 1");
+
+        this.channel = channel;
+
+        //every block fits in either ring, along with the end
+        this.filledBlocks = new SpscRingBuffer<ByteBuffer>(depth + 1);
+        this.freeBlocks = new SpscRingBuffer<ByteBuffer>(depth);
+
+        for(int i = 0; i < depth; i++)
+            this.freeBlocks.offer(ByteBuffer.allocateDirect(blockSize));
+
+        this.writingThread = new Thread(this::writeBlocks, "AdaptiveHuffman writer");
+        this.writingThread.setDaemon(true);
+        this.writingThread.start();
+    }
+
+    /**
+     * Writes blocks to the channel as they are handed over until the end is handed over or the channel fails. Once the
+     * channel has failed, the blocks handed over are given straight back, so the producer never waits for good.
+     */
+    private void writeBlocks() {
+        ByteBuffer block;
+
+        while(true) {
+            int attempt = 0;
+
+            while((block = this.filledBlocks.poll()) == null)
+                SpscRingBuffer.backOff(attempt++);
+
+            if(block == END)
+                return;
+
+            if(this.failure == null) {
+                try {
+                    while(block.hasRemaining())
+                        this.channel.write(block);
+                } catch (IOException e) {
+                    this.failure = e;
+                }
+            }
+
+            this.freeBlocks.offer(block);
+        }
+    }
+
+    /**
+     * Copies the bytes left in the given buffer into blocks, handing each block to the writing thread once it is full.
+     * @param src The buffer to write from.
+     * @return The number of bytes written, which is always every byte left in the buffer.
+     * @throws IOException If the writer has been closed or the channel has failed.
+     */
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if(this.closed)
+            throw new ClosedChannelException();
+
+        int length = src.remaining();
+
+        while(src.hasRemaining()) {
+            if(this.currentBlock == null)
+                this.currentBlock = this.takeFreeBlock();
+
+            //as much of the buffer as fits
+            int partLength = Math.min(src.remaining(), this.currentBlock.remaining());
+            ByteBuffer part = src.duplicate();
+            part.limit(part.position() + partLength);
+            this.currentBlock.put(part);
+            src.position(part.position());
+
+            if(!this.currentBlock.hasRemaining())
+                this.handOverCurrentBlock();
+        }
+
+        return length;
+    }
+
+    /**
+     * Takes a block to fill, waiting for the writing thread to give one back if there are none.
+     * @return The block, cleared.
+     * @throws IOException If the channel has failed.
+     */
+    private ByteBuffer takeFreeBlock() throws IOException {
+        ByteBuffer block;
+        int attempt = 0;
+
+        while((block = this.freeBlocks.poll()) == null) {
+            if(this.failure != null)
+                throw this.failure;
+            if(Thread.currentThread().isInterrupted())
+                throw new InterruptedIOException("Interrupted while waiting for the channel to be written to");
+            SpscRingBuffer.backOff(attempt++);
+        }
+
+        if(this.failure != null)
+            throw this.failure;
+
+        block.clear();
+        return block;
+    }
+
+    /**
+     * Hands the block being filled to the writing thread.
+     */
+    private void handOverCurrentBlock() {
+        this.currentBlock.flip();
+        this.filledBlocks.offer(this.currentBlock);
+        this.currentBlock = null;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !this.closed;
+    }
+
+    /**
+     * Hands over the block being filled, waits for every block to be written and closes the channel.
+     * @throws IOException If the channel failed or could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if(this.closed)
+            return;
+
+        this.closed = true;
+
+        if(this.currentBlock != null && this.currentBlock.position() > 0)
+            this.handOverCurrentBlock();
+        this.filledBlocks.offer(END);
+
+        try {
+            this.writingThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.channel.close();
+
+        if(this.failure != null)
+            throw this.failure;
+    }
+}
@@ -0,0 +1,117 @@
+package AdaptiveHuffmanCoding.BitStreams;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded queue which hands items from exactly one producer thread to exactly one consumer thread without locks.
+ * The items are held in a ring whose length is a power of two. The producer only ever moves the tail and the consumer
+ * only ever moves the head, each publishing its move with an ordered write, so neither ever waits for the other to
+ * let go of anything. Each side keeps its last sight of the other side's counter and only reads it again when the ring
+ * looks full or empty, so the counters are rarely read across threads.
+ * @param <T> The type of the items.
+ */
+class SpscRingBuffer<T> {
+
+    /**
+     * The number of times a thread waiting on the other side yields before it starts to sleep between checks.
+     */
+    private static final int YIELDS_BEFORE_PARKING = 64;
+
+    /**
+     * The time in nanoseconds a waiting thread sleeps between checks once it has stopped yielding.
+     */
+    private static final long PARK_NANOS = 50 * 1000;
+
+    /**
+     * The items in the ring, at their count modulo the length of the ring.
+     */
+    private final Object[] items;
+
+    /**
+     * The mask which takes a count to its index in the ring.
+     */
+    private final int mask;
+
+    /**
+     * The number of items ever taken, moved only by the consumer, and the number of items ever added, moved only by
+     * the producer.
+     */
+    private final AtomicLong head = new AtomicLong(), tail = new AtomicLong();
+
+    /**
+     * The head as the producer last saw it, and the tail as the consumer last saw it.
+     */
+    private long producerHead, consumerTail;
+
+    /**
+     * Constructs an empty ring with room for at least the given number of items.
+     * @param capacity The number of items the ring must have room for, at least 1.
+     */
+    SpscRingBuffer(int capacity) {
+        if(capacity < 1 || capacity > 1 << 30)
+            throw new IllegalArgumentException("Capacity must be between 1 and " + (1 << 30));
+
+        //the length of the ring is rounded up to a power of two, so a count is taken to an index with a mask
+        int length = Integer.highestOneBit(capacity);
+        if(length < capacity)
+            length <<= 1;
+
+        this.items = new Object[length];
+        this.mask = length - 1;
+    }
+
+    /**
+     * Adds an item to the tail of the ring. Only called by the producer.
+     * @param item The item to add, which must not be null.
+     * @return True if the item was added, false if the ring was full.
+     */
+    boolean offer(T item) {
+        long currentTail = this.tail.get();
+
+        if(currentTail - this.producerHead == this.items.length) {
+            this.producerHead = this.head.get();
+            if(currentTail - this.producerHead == this.items.length)
+                return false;
+        }
+
+        this.items[(int) currentTail & this.mask] = item;
+        this.tail.lazySet(currentTail + 1);
+
+        return true;
+    }
+
+    /**
+     * Takes the item at the head of the ring. Only called by the consumer.
+     * @return The item, or null if the ring was empty.
+     */
+    @SuppressWarnings("unchecked")
+    T poll() {
+        long currentHead = this.head.get();
+
+        if(currentHead == this.consumerTail) {
+            this.consumerTail = this.tail.get();
+            if(currentHead == this.consumerTail)
+                return null;
+        }
+
+        int index = (int) currentHead & this.mask;
+        T item = (T) this.items[index];
+        this.items[index] = null;
+        this.head.lazySet(currentHead + 1);
+
+        return item;
+    }
+
+    /**
+     * Waits a little while before a thread checks the ring again, yielding at first and then sleeping, so that a
+     * thread which waits for long does not keep a core busy.
+     * @param attempt The number of times the thread has already waited for the same thing.
+     */
+    static void backOff(int attempt) {
+        if(attempt < YIELDS_BEFORE_PARKING)
+            Thread.yield();
+        else
+            LockSupport.parkNanos(PARK_NANOS);
+    }
+}
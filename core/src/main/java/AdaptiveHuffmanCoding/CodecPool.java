@@ -0,0 +1,133 @@
+package AdaptiveHuffmanCoding;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A bounded pool of encoders and decoders, so that compressing many small messages does not construct a new tree for
+ * every message. Encoders and decoders are reset when they are released and handed out again by the next acquire.
+ * The pool can be shared between threads, but each encoder or decoder must only be used by one thread at a time.
+ */
+public class CodecPool {
+
+    /**
+     * The default number of encoders and of decoders the pool keeps, two for every core.
+     */
+    public static final int DEFAULT_CAPACITY = 2 * Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The number of bits in each symbol of the encoders.
+     */
+    private final int symbolBits;
+
+    /**
+     * The dictionary the encoders and decoders start from, or null if they start from only the NYT node.
+     */
+    private final Dictionary dictionary;
+
+    /**
+     * The encoders and decoders which are ready to be handed out.
+     */
+    private final BlockingQueue<AdaptiveHuffmanEncoder> encoders;
+    private final BlockingQueue<AdaptiveHuffmanDecoder> decoders;
+
+    /**
+     * Constructs a pool of encoders with the given symbol width, keeping the default number of encoders and decoders.
+     * @param symbolBits The number of bits in each symbol of the encoders.
+     */
+    public CodecPool(int symbolBits) {
+        this(symbolBits, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a pool of encoders with the given symbol width.
+     * @param symbolBits The number of bits in each symbol of the encoders.
+     * @param capacity The largest number of encoders, and of decoders, kept by the pool. Any more which are released
+     *                 are left for the garbage collector.
+     */
+    public CodecPool(int symbolBits, int capacity) {
+        this(symbolBits, null, capacity);
+    }
+
+    /**
+     * Constructs a pool of encoders and decoders which start from the given dictionary, keeping the default number of
+     * encoders and decoders.
+     * @param dictionary The dictionary the encoders and decoders start from.
+     */
+    public CodecPool(Dictionary dictionary) {
+        this(dictionary, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a pool of encoders and decoders which start from the given dictionary.
+     * @param dictionary The dictionary the encoders and decoders start from.
+     * @param capacity The largest number of encoders, and of decoders, kept by the pool.
+     */
+    public CodecPool(Dictionary dictionary, int capacity) {
+        this(dictionary.getSymbolBits(), dictionary, capacity);
+    }
+
+    /**
+     * Constructs a pool.
+     * @param symbolBits The number of bits in each symbol of the encoders.
+     * @param dictionary The dictionary the encoders and decoders start from, or null if there is none.
+     * @param capacity The largest number of encoders, and of decoders, kept by the pool.
+     */
+    private CodecPool(int symbolBits, Dictionary dictionary, int capacity) {
+        if(capacity < 1)
+            throw new IllegalArgumentException("Capacity must be at least 1");
+
+        this.symbolBits = symbolBits;
+        this.dictionary = dictionary;
+        this.encoders = new ArrayBlockingQueue<AdaptiveHuffmanEncoder>(capacity);
+        this.decoders = new ArrayBlockingQueue<AdaptiveHuffmanDecoder>(capacity);
+    }
+
+    /**
+     * Takes an encoder from the pool, or constructs one if the pool is empty.
+     * @return An encoder in the state it was constructed in.
+     */
+    public AdaptiveHuffmanEncoder acquireEncoder() {
+        AdaptiveHuffmanEncoder encoder = this.encoders.poll();
+
+        if(encoder != null)
+            return encoder;
+
+        return this.dictionary != null ? new AdaptiveHuffmanEncoder(this.dictionary) : new AdaptiveHuffmanEncoder(this.symbolBits);
+    }
+
+    /**
+     * Resets an encoder and gives it back to the pool. It must not be used again by the caller.
+     * @param encoder The encoder to give back.
+     */
+    public void releaseEncoder(AdaptiveHuffmanEncoder encoder) {
+        encoder.reset();
+        this.encoders.offer(encoder);
+    }
+
+    /**
+     * Takes a decoder from the pool, or constructs one if the pool is empty.
+     * @return A decoder in the state it was constructed in.
+     */
+    public AdaptiveHuffmanDecoder acquireDecoder() {
+        AdaptiveHuffmanDecoder decoder = this.decoders.poll();
+
+        if(decoder != null)
+            return decoder;
+
+        decoder = new AdaptiveHuffmanDecoder();
+        if(this.dictionary != null)
+            decoder.addDictionary(this.dictionary);
+
+        return decoder;
+    }
+
+    /**
+     * Resets a decoder and gives it back to the pool. It must not be used again by the caller.
+     * @param decoder The decoder to give back.
+     */
+    public void releaseDecoder(AdaptiveHuffmanDecoder decoder) {
+        decoder.reset();
+        this.decoders.offer(decoder);
+    }
+}
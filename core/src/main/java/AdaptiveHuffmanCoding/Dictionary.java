@@ -0,0 +1,273 @@
+package AdaptiveHuffmanCoding;
+
+import AdaptiveHuffmanCoding.AdaptiveHuffmanNodes.AdaptiveHuffmanTree;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * A profile of how often each symbol turns up in typical data, trained from samples of it. Encoders and decoders given
+ * the same dictionary start every file from a tree which has already seen the symbols in those proportions, instead of
+ * from only the NYT node, so short files do not have to send most of their symbols in full the first time they appear.
+ * <p>
+ * The dictionary is identified by a checksum of its contents, which is written in the header of every file compressed
+ * with it so that the decoder can tell whether it has the right one. It is stored as:
+ * <pre>
+ *   4 bytes  magic number, "AHUD"
+ *   1 byte   number of bits in each symbol
+ *   4 bytes  number of symbols with a weight
+ *   6 bytes  for each of those symbols in increasing order, the symbol in 2 bytes and its weight in 4 bytes
+ * </pre>
+ * A dictionary never changes once it is made, so it can be shared between threads.
+ */
+public class Dictionary {
+
+    /**
+     * The magic number every stored dictionary starts with, the characters "AHUD".
+     */
+    static final int MAGIC = 0x41485544;
+
+    /**
+     * The default total of the weights of a trained dictionary. Lighter dictionaries are left behind sooner by the
+     * data being compressed, and heavier ones are slower to follow data which differs from the samples.
+     */
+    public static final int DEFAULT_TOTAL_WEIGHT = 4096;
+
+    /**
+     * The size in bytes of the start of a stored dictionary, and of each symbol and its weight after that.
+     */
+    private static final int HEADER_SIZE = 9, ENTRY_SIZE = 6;
+
+    /**
+     * The number of bits in each symbol.
+     */
+    private final int symbolBits;
+
+    /**
+     * The weight of each symbol, which is 0 for the symbols that were never seen.
+     */
+    private final int[] weights;
+
+    /**
+     * The total of the weights.
+     */
+    private final long totalWeight;
+
+    /**
+     * The checksum of the stored dictionary, which identifies it.
+     */
+    private final int id;
+
+    /**
+     * The tree every file compressed with the dictionary starts from, which is copied and never changed itself.
+     */
+    private final AdaptiveHuffmanTree tree;
+
+    /**
+     * Constructs a dictionary and builds its starting tree.
+     * @param symbolBits The number of bits in each symbol.
+     * @param weights The weight of each symbol.
+     */
+    private Dictionary(int symbolBits, int[] weights) {
+        this.symbolBits = symbolBits;
+        this.weights = weights;
+
+        long total = 0;
+        for(int weight : weights) {
+            total += weight;
+        }
+        this.totalWeight = total;
+
+        //the checksum covers everything stored after the magic number
+        byte[] stored = this.toBuffer().array();
+        CRC32 checksum = new CRC32();
+        checksum.update(stored, 4, stored.length - 4);
+        this.id = (int) checksum.getValue();
+
+        this.tree = this.buildTree();
+    }
+
+    /**
+     * Trains a dictionary of the default total weight from samples of the data it will be used for.
+     * @param symbolBits The number of bits in each symbol, between 1 and 16.
+     * @param samples The samples, each of which is split into symbols the way the encoder splits a file.
+     * @return The dictionary.
+     */
+    public static Dictionary train(int symbolBits, Iterable<byte[]> samples) {
+        return train(symbolBits, samples, DEFAULT_TOTAL_WEIGHT);
+    }
+
+    /**
+     * Trains a dictionary from samples of the data it will be used for. The number of times each symbol turns up in
+     * the samples is scaled down to make the weights add up to about the given total, with every symbol that turned up
+     * at all keeping a weight of at least 1.
+     * @param symbolBits The number of bits in each symbol, between 1 and 16.
+     * @param samples The samples, each of which is split into symbols the way the encoder splits a file.
+     * @param totalWeight The total the weights are scaled down to.
+     * @return The dictionary.
+     */
+    public static Dictionary train(int symbolBits, Iterable<byte[]> samples, int totalWeight) {
+        if(symbolBits < 1 || symbolBits > AdaptiveHuffmanEncoder.MAX_SYMBOL_BITS)
+            throw new IllegalArgumentException("Number of bits in each symbol must be between 1 and " + AdaptiveHuffmanEncoder.MAX_SYMBOL_BITS);
+
+        if(totalWeight < 1)
+            throw new IllegalArgumentException("Total weight must be at least 1");
+
+        //the mask which selects the lowest symbol of a group of bits
+        int symbolMask = (1 << symbolBits) - 1;
+
+        //the number of times each symbol turns up in the samples, and the number of symbols in them
+        long[] counts = new long[1 << symbolBits];
+        long symbolCount = 0;
+
+        for(byte[] sample : samples) {
+            //the bits of the sample which have not made up a whole symbol yet, and the number of them
+            int pendingBits = 0, pendingBitCount = 0;
+
+            for(byte character : sample) {
+                pendingBits = (pendingBits << 8) | (character & 0xff);
+                pendingBitCount += 8;
+
+                while(pendingBitCount >= symbolBits) {
+                    pendingBitCount -= symbolBits;
+                    counts[(pendingBits >>> pendingBitCount) & symbolMask]++;
+                    symbolCount++;
+                }
+            }
+
+            //the last symbol is padded with 0s, just as the encoder pads it
+            if(pendingBitCount > 0) {
+                counts[(pendingBits << (symbolBits - pendingBitCount)) & symbolMask]++;
+                symbolCount++;
+            }
+        }
+
+        int[] weights = new int[counts.length];
+        for(int symbol = 0; symbol < counts.length; symbol++) {
+            if(counts[symbol] > 0)
+                weights[symbol] = (int) Math.max(1, symbolCount <= totalWeight ? counts[symbol] : counts[symbol] * totalWeight / symbolCount);
+        }
+
+        return new Dictionary(symbolBits, weights);
+    }
+
+    /**
+     * Reads a stored dictionary.
+     * @param in The stream to read the dictionary from.
+     * @return The dictionary.
+     * @throws IOException If the dictionary could not be read, or is not a dictionary this version can read.
+     */
+    public static Dictionary read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+
+        if(data.readInt() != MAGIC)
+            throw new IOException("Not a dictionary");
+
+        int symbolBits = data.readUnsignedByte();
+        int symbolCount = data.readInt();
+
+        if(symbolBits < 1 || symbolBits > AdaptiveHuffmanEncoder.MAX_SYMBOL_BITS || symbolCount < 0 || symbolCount > 1 << symbolBits)
+            throw new IOException("Dictionary is damaged");
+
+        int[] weights = new int[1 << symbolBits];
+
+        //the symbol before the one being read, as the symbols are stored in increasing order
+        int previousSymbol = -1;
+
+        //the total of the weights, which the tree can hold as long as it fits in an int
+        long totalWeight = 0;
+
+        for(int i = 0; i < symbolCount; i++) {
+            int symbol = data.readUnsignedShort();
+            int weight = data.readInt();
+
+            totalWeight += weight;
+
+            if(symbol <= previousSymbol || symbol >= weights.length || weight < 1 || totalWeight > Integer.MAX_VALUE / 2)
+                throw new IOException("Dictionary is damaged");
+
+            weights[symbol] = weight;
+            previousSymbol = symbol;
+        }
+
+        return new Dictionary(symbolBits, weights);
+    }
+
+    /**
+     * Stores the dictionary.
+     * @param out The stream to write the dictionary to.
+     * @throws IOException If the dictionary could not be written.
+     */
+    public void write(OutputStream out) throws IOException {
+        out.write(this.toBuffer().array());
+        out.flush();
+    }
+
+    /**
+     * Writes the dictionary to a buffer the way it is stored.
+     * @return A buffer holding the stored dictionary.
+     */
+    private ByteBuffer toBuffer() {
+        //the number of symbols with a weight
+        int symbolCount = 0;
+        for(int weight : this.weights) {
+            if(weight > 0)
+                symbolCount++;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + symbolCount * ENTRY_SIZE);
+
+        buffer.putInt(MAGIC);
+        buffer.put((byte) this.symbolBits);
+        buffer.putInt(symbolCount);
+
+        for(int symbol = 0; symbol < this.weights.length; symbol++) {
+            if(this.weights[symbol] > 0) {
+                buffer.putShort((short) symbol);
+                buffer.putInt(this.weights[symbol]);
+            }
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Builds the starting tree straight from the weights as a Huffman tree, so that it takes the same time however
+     * heavy the weights of a stored dictionary claim to be.
+     * @return The starting tree.
+     */
+    private AdaptiveHuffmanTree buildTree() {
+        AdaptiveHuffmanTree startingTree = new AdaptiveHuffmanTree(this.symbolBits);
+        startingTree.buildFromWeights(this.weights);
+
+        return startingTree;
+    }
+
+    public int getId() {
+        return this.id;
+    }
+
+    public int getSymbolBits() {
+        return this.symbolBits;
+    }
+
+    /**
+     * Gets the total of the weights, which is the weight of the root of the starting tree.
+     * @return The total weight.
+     */
+    public long getTotalWeight() {
+        return this.totalWeight;
+    }
+
+    /**
+     * Gets the tree every file compressed with the dictionary starts from. It must not be changed.
+     * @return The starting tree.
+     */
+    AdaptiveHuffmanTree getTree() {
+        return this.tree;
+    }
+}
@@ -0,0 +1,91 @@
+package AdaptiveHuffmanCoding;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Reads and writes whole buffers on channels, which may otherwise only read or write part of a buffer at a time.
+ */
+class FileChannels {
+
+    /**
+     * Reads from a file at the given position until the buffer is full. The position of the channel is not changed, so
+     * several threads can read from the same channel at once.
+     * @param channel The channel of the file to read.
+     * @param buffer The buffer to fill.
+     * @param position The position in the file to start reading from.
+     * @throws IOException If the file could not be read, or ends before the buffer is full.
+     */
+    static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        //the number of bytes read by the last read
+        int bytesRead;
+
+        while(buffer.hasRemaining()) {
+            if((bytesRead = channel.read(buffer, position)) < 0)
+                throw new EOFException("File ended at " + position + " with " + buffer.remaining() + " bytes left to read");
+            position += bytesRead;
+        }
+    }
+
+    /**
+     * Reads samples spread evenly over a file, one from the start of each of equal parts of it, one after another into
+     * the buffer. Each sample is as long as a part of the file or an equal share of the buffer, whichever is shorter,
+     * so the samples of a short file make up the whole of it. The position of the channel is not changed.
+     * @param channel The channel of the file to read.
+     * @param samples The buffer to read the samples into, which is cleared first and flipped afterwards, ready to be
+     *                read from.
+     * @param sampleCount The number of samples.
+     * @return The length in bytes of each sample.
+     * @throws IOException If the file could not be read.
+     */
+    static int readSamples(FileChannel channel, ByteBuffer samples, int sampleCount) throws IOException {
+        long partLength = channel.size() / sampleCount;
+        int sampleLength = (int) Math.min(partLength, samples.capacity() / sampleCount);
+
+        samples.clear();
+        for(int i = 0; i < sampleCount; i++) {
+            samples.limit((i + 1) * sampleLength);
+            readFully(channel, samples, i * partLength);
+        }
+        samples.flip();
+
+        return sampleLength;
+    }
+
+    /**
+     * Copies part of a file to a channel, letting the operating system move the bytes where it can. The position of
+     * the file's channel is not changed.
+     * @param channel The channel of the file to copy from.
+     * @param position The position in the file to start copying from.
+     * @param length The number of bytes to copy.
+     * @param destination The channel to copy to.
+     * @throws IOException If either channel failed, or the file ends before the bytes have all been copied.
+     */
+    static void transferFully(FileChannel channel, long position, long length, WritableByteChannel destination) throws IOException {
+        //the position in the file after the last byte to copy
+        long end = position + length;
+
+        while(position < end) {
+            //a transfer of nothing means the file has ended, or the destination could not take anything for now
+            long bytesTransferred = channel.transferTo(position, end - position, destination);
+            if(bytesTransferred == 0 && position >= channel.size())
+                throw new EOFException("File ended at " + position + " with " + (end - position) + " bytes left to copy");
+            position += bytesTransferred;
+        }
+    }
+
+    /**
+     * Writes everything left in the buffer to the channel.
+     * @param channel The channel to write to.
+     * @param buffer The buffer to write.
+     * @throws IOException If the channel could not be written to.
+     */
+    static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
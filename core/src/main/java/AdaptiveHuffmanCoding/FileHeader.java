@@ -0,0 +1,342 @@
+package AdaptiveHuffmanCoding;
+
+import AdaptiveHuffmanCoding.AdaptiveHuffmanNodes.AdaptiveHuffmanTree;
+import AdaptiveHuffmanCoding.AdaptiveHuffmanNodes.ContextTrees;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The header at the start of every compressed file, and every message compressed in memory, which describes how the
+ * rest of it was compressed:
+ * <pre>
+ *   4 bytes  magic number, "AHUF"
+ *   1 byte   format version
+ *   1 byte   number of bits in each symbol
+ *   1 byte   flags
+ *   8 bytes  length in bytes of the original file
+ *   4 bytes  id of the dictionary the trees started from, only if the dictionary flag is set
+ *   4 bytes  weight of the root at which the trees rescaled their weights, only if the rescale flag is set
+ *   4 bytes  number of most recent symbols the trees were made of, only if the window flag is set
+ * </pre>
+ */
+class FileHeader {
+
+    /**
+     * The magic number every compressed file starts with, the characters "AHUF".
+     */
+    static final int MAGIC = 0x41485546;
+
+    /**
+     * The version of the file format written by this version of the encoder.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The size of the header in bytes, without a dictionary id, a rescale threshold or a window size, and the sizes of
+     * those.
+     */
+    static final int SIZE = 15, DICTIONARY_ID_SIZE = 4, RESCALE_THRESHOLD_SIZE = 4, WINDOW_SIZE_SIZE = 4;
+
+    /**
+     * The size of the longest header in bytes.
+     */
+    static final int MAX_SIZE = SIZE + DICTIONARY_ID_SIZE + RESCALE_THRESHOLD_SIZE + WINDOW_SIZE_SIZE;
+
+    /**
+     * The flag which marks a file which was compressed in independent chunks.
+     */
+    static final int CHUNKED_FLAG = 1;
+
+    /**
+     * The flag which marks a file whose trees started from a dictionary instead of only the NYT node.
+     */
+    static final int DICTIONARY_FLAG = 2;
+
+    /**
+     * The flag which marks a file whose trees rescaled their weights whenever the weight of the root reached a
+     * threshold.
+     */
+    static final int RESCALE_FLAG = 4;
+
+    /**
+     * The flag which marks a file whose trees were only made of a window of the most recent symbols.
+     */
+    static final int WINDOW_FLAG = 8;
+
+    /**
+     * The flag which marks a file whose symbols were each coded with the tree of the symbol before them.
+     */
+    static final int CONTEXT_FLAG = 16;
+
+    /**
+     * The flag which marks a file whose original bytes follow the header as they are, as they would not have got any
+     * smaller by being compressed.
+     */
+    static final int STORED_FLAG = 32;
+
+    /**
+     * The flag which marks a file compressed in chunks in which every chunk whose compressed length equals its
+     * original length holds its original bytes as they are. Every other chunk is shorter than it was.
+     */
+    static final int STORED_CHUNKS_FLAG = 64;
+
+    /**
+     * The number of bits in each symbol.
+     */
+    private final int symbolBits;
+
+    /**
+     * The flags of the file.
+     */
+    private final int flags;
+
+    /**
+     * The length in bytes of the original file.
+     */
+    private final long originalLength;
+
+    /**
+     * The id of the dictionary the trees started from, if the dictionary flag is set.
+     */
+    private final int dictionaryId;
+
+    /**
+     * The weight of the root at which the trees rescaled their weights, if the rescale flag is set.
+     */
+    private final int rescaleThreshold;
+
+    /**
+     * The number of most recent symbols the trees were made of, if the window flag is set.
+     */
+    private final int windowSize;
+
+    FileHeader(int symbolBits, int flags, long originalLength) {
+        this(symbolBits, flags, originalLength, 0, AdaptiveHuffmanTree.NO_RESCALING, AdaptiveHuffmanTree.NO_WINDOW);
+    }
+
+    FileHeader(int symbolBits, int flags, long originalLength, int dictionaryId, int rescaleThreshold, int windowSize) {
+        this.symbolBits = symbolBits;
+        this.flags = flags;
+        this.originalLength = originalLength;
+        this.dictionaryId = dictionaryId;
+        this.rescaleThreshold = rescaleThreshold;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Makes the header of a file, marking it with the id of the dictionary its trees start from if there is one, and
+     * with the way the trees forget old symbols, taken from the tree of the encoder.
+     * @param symbolBits The number of bits in each symbol.
+     * @param flags The flags of the file, apart from the dictionary, rescale and window flags.
+     * @param originalLength The length in bytes of the original file.
+     * @param dictionary The dictionary the trees start from, or null if they start from only the NYT node.
+     * @param tree The tree of the encoder, whose rescale threshold and window size every tree of the file uses.
+     * @return The header.
+     */
+    static FileHeader of(int symbolBits, int flags, long originalLength, Dictionary dictionary, AdaptiveHuffmanTree tree) {
+        if(dictionary != null)
+            flags |= DICTIONARY_FLAG;
+
+        if(tree.getRescaleThreshold() != AdaptiveHuffmanTree.NO_RESCALING)
+            flags |= RESCALE_FLAG;
+
+        if(tree.getWindowSize() != AdaptiveHuffmanTree.NO_WINDOW)
+            flags |= WINDOW_FLAG;
+
+        return new FileHeader(symbolBits, flags, originalLength, dictionary != null ? dictionary.getId() : 0, tree.getRescaleThreshold(), tree.getWindowSize());
+    }
+
+    /**
+     * Reads the header from the start of a file, leaving the position of the channel straight after it.
+     * @param channel The channel of the file.
+     * @return The header of the file.
+     * @throws IOException If the file could not be read, or does not start with a header this version can read.
+     */
+    static FileHeader read(FileChannel channel) throws IOException {
+        //enough of the file for the longest header
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(channel.size(), MAX_SIZE));
+
+        FileChannels.readFully(channel, buffer, 0);
+        buffer.flip();
+
+        FileHeader header = read(buffer);
+        channel.position(header.getSize());
+
+        return header;
+    }
+
+    /**
+     * Reads the header from a buffer, leaving the position of the buffer straight after it.
+     * @param buffer The buffer holding the header from its position.
+     * @return The header.
+     * @throws IOException If the buffer does not start with a header this version can read.
+     */
+    static FileHeader read(ByteBuffer buffer) throws IOException {
+        if(buffer.remaining() < SIZE)
+            throw new IOException("File is too short to be compressed");
+
+        //the header is always read most significant byte first, whatever the byte order of the buffer
+        ByteBuffer header = buffer.slice();
+        buffer.position(buffer.position() + SIZE);
+
+        if(header.getInt() != MAGIC)
+            throw new IOException("File was not compressed by this program");
+
+        //the version of the format the file was written in
+        int version = header.get() & 0xff;
+        if(version != VERSION)
+            throw new IOException("File was compressed with format version " + version + ", only version " + VERSION + " can be read");
+
+        int symbolBits = header.get() & 0xff;
+        int flags = header.get() & 0xff;
+        long originalLength = header.getLong();
+
+        if(symbolBits == 0 || originalLength < 0)
+            throw new IOException("File has a damaged header");
+
+        if((flags & ~(CHUNKED_FLAG | DICTIONARY_FLAG | RESCALE_FLAG | WINDOW_FLAG | CONTEXT_FLAG | STORED_FLAG | STORED_CHUNKS_FLAG)) != 0)
+            throw new IOException("File uses flags " + flags + ", which this version cannot read");
+
+        //the fields after the fixed part, which are only there if their flags are set
+        int optionalSize = ((flags & DICTIONARY_FLAG) != 0 ? DICTIONARY_ID_SIZE : 0) + ((flags & RESCALE_FLAG) != 0 ? RESCALE_THRESHOLD_SIZE : 0)
+                + ((flags & WINDOW_FLAG) != 0 ? WINDOW_SIZE_SIZE : 0);
+
+        if(buffer.remaining() < optionalSize)
+            throw new IOException("File is too short to be compressed");
+        buffer.position(buffer.position() + optionalSize);
+
+        int dictionaryId = (flags & DICTIONARY_FLAG) != 0 ? header.getInt() : 0;
+        int rescaleThreshold = (flags & RESCALE_FLAG) != 0 ? header.getInt() : AdaptiveHuffmanTree.NO_RESCALING;
+        int windowSize = (flags & WINDOW_FLAG) != 0 ? header.getInt() : AdaptiveHuffmanTree.NO_WINDOW;
+
+        //a tree cannot rescale below a weight of 2, and cannot both rescale and keep a window
+        if((flags & RESCALE_FLAG) != 0 && rescaleThreshold < 2)
+            throw new IOException("File has a damaged header");
+
+        if((flags & WINDOW_FLAG) != 0 && ((flags & RESCALE_FLAG) != 0 || windowSize < 1 || windowSize > AdaptiveHuffmanTree.MAX_WINDOW_SIZE))
+            throw new IOException("File has a damaged header");
+
+        //a file is either stored as a whole or split into chunks, only some of which may be stored
+        if((flags & STORED_FLAG) != 0 && (flags & CHUNKED_FLAG) != 0 || (flags & STORED_CHUNKS_FLAG) != 0 && (flags & CHUNKED_FLAG) == 0)
+            throw new IOException("File has a damaged header");
+
+        //there is only a tree for every symbol when there are few enough symbols
+        if((flags & CONTEXT_FLAG) != 0 && symbolBits > ContextTrees.MAX_SYMBOL_BITS)
+            throw new IOException("File has a damaged header");
+
+        return new FileHeader(symbolBits, flags, originalLength, dictionaryId, rescaleThreshold, windowSize);
+    }
+
+    /**
+     * Writes the header to a buffer.
+     * @return A buffer holding the header, ready to be written.
+     */
+    ByteBuffer toBuffer() {
+        ByteBuffer header = ByteBuffer.allocate(this.getSize());
+
+        this.write(header);
+        header.flip();
+
+        return header;
+    }
+
+    /**
+     * Writes the header into the given buffer, at its position.
+     * @param buffer The buffer to write the header into.
+     * @throws java.nio.BufferOverflowException If the header does not fit in the buffer.
+     */
+    void write(ByteBuffer buffer) {
+        //the header is always written most significant byte first, whatever the byte order of the buffer
+        ByteBuffer header = buffer.slice();
+
+        header.putInt(MAGIC);
+        header.put((byte) VERSION);
+        header.put((byte) this.symbolBits);
+        header.put((byte) this.flags);
+        header.putLong(this.originalLength);
+
+        if(this.hasDictionary())
+            header.putInt(this.dictionaryId);
+
+        if(this.isRescaled())
+            header.putInt(this.rescaleThreshold);
+
+        if(this.isWindowed())
+            header.putInt(this.windowSize);
+
+        buffer.position(buffer.position() + this.getSize());
+    }
+
+    /**
+     * Gets the size of the header in bytes, which is where the compressed data starts.
+     * @return The size of the header.
+     */
+    int getSize() {
+        return SIZE + (this.hasDictionary() ? DICTIONARY_ID_SIZE : 0) + (this.isRescaled() ? RESCALE_THRESHOLD_SIZE : 0)
+                + (this.isWindowed() ? WINDOW_SIZE_SIZE : 0);
+    }
+
+    int getSymbolBits() {
+        return this.symbolBits;
+    }
+
+    long getOriginalLength() {
+        return this.originalLength;
+    }
+
+    boolean isChunked() {
+        return (this.flags & CHUNKED_FLAG) != 0;
+    }
+
+    boolean hasDictionary() {
+        return (this.flags & DICTIONARY_FLAG) != 0;
+    }
+
+    int getDictionaryId() {
+        return this.dictionaryId;
+    }
+
+    boolean isRescaled() {
+        return (this.flags & RESCALE_FLAG) != 0;
+    }
+
+    /**
+     * Gets the weight of the root at which the trees rescaled their weights.
+     * @return The rescale threshold, or NO_RESCALING if the trees never rescaled.
+     */
+    int getRescaleThreshold() {
+        return this.rescaleThreshold;
+    }
+
+    boolean isWindowed() {
+        return (this.flags & WINDOW_FLAG) != 0;
+    }
+
+    /**
+     * Gets the number of most recent symbols the trees were made of.
+     * @return The window size, or NO_WINDOW if the trees kept every symbol.
+     */
+    int getWindowSize() {
+        return this.windowSize;
+    }
+
+    boolean usesOrder1Contexts() {
+        return (this.flags & CONTEXT_FLAG) != 0;
+    }
+
+    boolean isStored() {
+        return (this.flags & STORED_FLAG) != 0;
+    }
+
+    /**
+     * Checks whether a chunk of a file compressed in chunks holds its original bytes as they are.
+     * @param originalLength The length of the chunk in bytes before it was compressed.
+     * @param compressedLength The length of the chunk in the file.
+     * @return True if the chunk is stored, false if it is compressed.
+     */
+    boolean isStoredChunk(int originalLength, int compressedLength) {
+        return (this.flags & STORED_CHUNKS_FLAG) != 0 && compressedLength == originalLength;
+    }
+}
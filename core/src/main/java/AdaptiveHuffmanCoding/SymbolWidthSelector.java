@@ -0,0 +1,177 @@
+package AdaptiveHuffmanCoding;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Picks the number of bits in each symbol to compress data with, by running samples spread over the data through the
+ * tree of each candidate width without writing anything, and weighing the bits their codes take against the work of
+ * coding them. The width is written in the header of the compressed file as usual, so the decoder needs nothing more.
+ * <p>
+ * The work of coding is counted rather than timed, so the same data always gets the same width: every symbol costs a
+ * walk from its leaf up to the root, which is one node more than the length of its code, so narrow symbols cost more
+ * work for each byte. A selector keeps an encoder for each candidate width and reuses it for every selection, so
+ * selecting allocates nothing but the buffer the samples of a file are read into, once. Each selector must only be
+ * used by one thread at a time.
+ */
+public class SymbolWidthSelector {
+
+    /**
+     * How much smaller the compressed data has to be to be worth more work.
+     */
+    public enum Policy {
+
+        /**
+         * The width whose codes take the fewest bits, however much work it is.
+         */
+        SMALLEST(0),
+
+        /**
+         * A width which takes twice the work has to save at least 5% of the compressed size.
+         */
+        BALANCED(0.05),
+
+        /**
+         * A width which takes twice the work has to save at least 25% of the compressed size.
+         */
+        FASTEST(0.25);
+
+        /**
+         * The fraction of the compressed size a width has to save for each doubling of the work.
+         */
+        private final double savingPerDoubling;
+
+        Policy(double savingPerDoubling) {
+            this.savingPerDoubling = savingPerDoubling;
+        }
+    }
+
+    /**
+     * The number of samples taken from data, and the largest size in bytes of each.
+     */
+    private static final int SAMPLE_COUNT = 4, SAMPLE_SIZE = 64 * 1024;
+
+    /**
+     * The policy which weighs the bits against the work.
+     */
+    private final Policy policy;
+
+    /**
+     * The encoder of each candidate width, widest first, so that the widest of two equally good widths is picked.
+     */
+    private final AdaptiveHuffmanEncoder[] encoders;
+
+    /**
+     * The buffer the samples of a file are read into, which is allocated the first time a file is sampled.
+     */
+    private ByteBuffer samples;
+
+    /**
+     * Constructs a selector which picks between 2, 4 and 8 bit symbols. Wider symbols are left out, as a few samples
+     * are too short for a tree of 16 bit symbols to learn its symbols in, and its large tree is slower for each
+     * symbol than counting the work suggests.
+     * @param policy The policy which weighs the bits against the work.
+     */
+    public SymbolWidthSelector(Policy policy) {
+        this(policy, 2, 4, 8);
+    }
+
+    /**
+     * Constructs a selector which picks between the given widths.
+     * @param policy The policy which weighs the bits against the work.
+     * @param widths The candidate numbers of bits in each symbol, each between 1 and
+     *               AdaptiveHuffmanEncoder.MAX_SYMBOL_BITS.
+     * @throws IllegalArgumentException If there are no widths, or any is out of range.
+     */
+    public SymbolWidthSelector(Policy policy, int... widths) {
+        if(widths.length == 0)
+            throw new IllegalArgumentException("There must be at least one width to pick from");
+
+        int[] sortedWidths = widths.clone();
+        Arrays.sort(sortedWidths);
+
+        this.policy = policy;
+        this.encoders = new AdaptiveHuffmanEncoder[sortedWidths.length];
+
+        for(int i = 0; i < sortedWidths.length; i++) {
+            int width = sortedWidths[sortedWidths.length - 1 - i];
+
+            if(width < 1 || width > AdaptiveHuffmanEncoder.MAX_SYMBOL_BITS)
+                throw new IllegalArgumentException("Widths must be between 1 and " + AdaptiveHuffmanEncoder.MAX_SYMBOL_BITS + " bits, not " + width);
+
+            this.encoders[i] = new AdaptiveHuffmanEncoder(width);
+        }
+    }
+
+    /**
+     * Picks the width to compress the given file with, from samples spread over it.
+     * @param filename The name of the file.
+     * @return The number of bits in each symbol.
+     * @throws IOException If the file could not be read.
+     */
+    public int selectWidth(String filename) throws IOException {
+        if(this.samples == null)
+            this.samples = ByteBuffer.allocate(SAMPLE_COUNT * SAMPLE_SIZE);
+
+        FileChannel fileReader = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+
+        try {
+            FileChannels.readSamples(fileReader, this.samples, SAMPLE_COUNT);
+        } finally {
+            fileReader.close();
+        }
+
+        return this.selectWidth(this.samples);
+    }
+
+    /**
+     * Picks the width to compress the given bytes with, from a sample from the start of each of equal parts of them.
+     * @param data The bytes, from the position of the buffer up to its limit, neither of which are moved.
+     * @return The number of bits in each symbol.
+     */
+    public int selectWidth(ByteBuffer data) {
+        int partLength = data.remaining() / SAMPLE_COUNT;
+        int sampleLength = Math.min(partLength, SAMPLE_SIZE);
+
+        //the power of the work each score is multiplied by, which makes twice the work worth the saving of the policy
+        double workExponent = -Math.log(1 - this.policy.savingPerDoubling) / Math.log(2);
+
+        //the samples are read through a copy of the buffer, so that neither its position nor its limit are moved
+        ByteBuffer sample = data.duplicate();
+
+        AdaptiveHuffmanEncoder bestEncoder = null;
+        double bestScore = Double.POSITIVE_INFINITY;
+
+        for(AdaptiveHuffmanEncoder encoder : this.encoders) {
+            encoder.reset();
+
+            //the bits the codes of the samples take
+            long bits = 0;
+            for(int i = 0; i < SAMPLE_COUNT; i++) {
+                int start = data.position() + i * partLength;
+                sample.limit(start + sampleLength).position(start);
+                bits += encoder.countCodedBits(sample);
+            }
+
+            //each symbol walks from its leaf to the root, one node more than the length of its code
+            long symbols = (long) SAMPLE_COUNT * sampleLength * 8 / encoder.getSymbolBits();
+            double score = bits * Math.pow(bits + symbols, workExponent);
+
+            if(score < bestScore) {
+                bestScore = score;
+                bestEncoder = encoder;
+            }
+        }
+
+        //a buffer too short for any sample scores nothing for every width, so it gets the widest
+        return bestEncoder.getSymbolBits();
+    }
+
+    public Policy getPolicy() {
+        return this.policy;
+    }
+}
@@ -1,29 +1,29 @@
 package AdaptiveHuffmanCoding;
 
-import AdaptiveHuffmanCoding.AdaptiveHuffmanNodes.AdaptiveHuffmanNode;
+import AdaptiveHuffmanCoding.AdaptiveHuffmanNodes.AdaptiveHuffmanTree;
 
 /**
  * Created by bnjhope on 03/10/16.
  */
 public class TreePrinter {
 
-    private AdaptiveHuffmanNode root;
+    private AdaptiveHuffmanTree tree;
 
     private int indent = 5;
-    
-    public void printTree(AdaptiveHuffmanNode root) {
 
-        this.root = root;
+    public void printTree(AdaptiveHuffmanTree tree) {
 
-        preorder(root, true, 0);
+        this.tree = tree;
+
+        preorder(tree.getRoot(), true, 0);
     }
 
 
-    public void preorder(AdaptiveHuffmanNode currentNode, boolean lastChild, int previousIndentation) {
+    public void preorder(int currentNode, boolean lastChild, int previousIndentation) {
 
-        if(currentNode != null) {
+        if(currentNode != AdaptiveHuffmanTree.NONE) {
 
-            if (currentNode == root) {
+            if (currentNode == tree.getRoot()) {
                 System.out.println(String.format("%" + this.indent + "s", "") +  "└── " + printNode(currentNode));
             }
             else if (lastChild) {
@@ -36,13 +36,13 @@ public class TreePrinter {
 
 
             this.indent += 8;
-            preorder(currentNode.getLeftChild(), false, this.indent - 8);
-            preorder(currentNode.getRightChild(), true, this.indent - 8);
+            preorder(tree.getLeftChild(currentNode), false, this.indent - 8);
+            preorder(tree.getRightChild(currentNode), true, this.indent - 8);
             this.indent -= 8;
         }
     }
 
-    private String printNode(AdaptiveHuffmanNode node) {
-        return node.getFreq() + " |" + node.getValue() + "| " + node.getNodeId();
+    private String printNode(int node) {
+        return tree.getWeight(node) + " |" + tree.getSymbol(node) + "| " + node;
     }
 }
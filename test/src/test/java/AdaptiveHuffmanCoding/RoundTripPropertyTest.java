@@ -0,0 +1,590 @@
+package AdaptiveHuffmanCoding;
+
+import AdaptiveHuffmanCoding.AdaptiveHuffmanNodes.AdaptiveHuffmanTree;
+import AdaptiveHuffmanCoding.AdaptiveHuffmanNodes.ContextTrees;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.Size;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that whatever is compressed decompresses back to exactly the same bytes, for every way of compressing.
+ */
+class RoundTripPropertyTest {
+
+    /**
+     * Compressing a file and decompressing it gives back the original file, for every symbol width.
+     */
+    @Property(tries = 200)
+    void fileRoundTrip(@ForAll("data") byte[] data, @ForAll @IntRange(min = 1, max = 16) int symbolBits) throws IOException {
+        assertArrayEquals(data, roundTripFile(data, symbolBits, false));
+    }
+
+    /**
+     * Compressing a file in parallel chunks and decompressing it gives back the original file, for every symbol width.
+     */
+    @Property(tries = 30)
+    void parallelFileRoundTrip(@ForAll @Size(max = 4 * AdaptiveHuffmanEncoder.MIN_CHUNK_SIZE) byte[] data, @ForAll @IntRange(min = 1, max = 16) int symbolBits) throws IOException {
+        assertArrayEquals(data, roundTripFile(data, symbolBits, true));
+    }
+
+    /**
+     * Compressing through an output stream and decompressing through an input stream gives back the original bytes, for
+     * every symbol width.
+     */
+    @Property(tries = 200)
+    void streamRoundTrip(@ForAll("data") byte[] data, @ForAll @IntRange(min = 1, max = 16) int symbolBits) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        try(OutputStream out = new AdaptiveHuffmanOutputStream(compressed, symbolBits)) {
+            out.write(data);
+        }
+
+        ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+
+        try(InputStream in = new AdaptiveHuffmanInputStream(new ByteArrayInputStream(compressed.toByteArray()), symbolBits)) {
+            byte[] buffer = new byte[1024];
+            int bytesRead;
+
+            while((bytesRead = in.read(buffer)) >= 0) {
+                decompressed.write(buffer, 0, bytesRead);
+            }
+        }
+
+        assertArrayEquals(data, decompressed.toByteArray());
+    }
+
+    /**
+     * Checkpointing a stream part way through and carrying on from the checkpoint in a new stream gives exactly the
+     * same compressed data as compressing everything with one stream.
+     */
+    @Property(tries = 100)
+    void checkpointedStreamMatchesUninterrupted(@ForAll("data") byte[] first, @ForAll("data") byte[] second, @ForAll @IntRange(min = 1, max = 16) int symbolBits) throws IOException {
+        ByteArrayOutputStream uninterrupted = new ByteArrayOutputStream();
+
+        try(OutputStream out = new AdaptiveHuffmanOutputStream(uninterrupted, symbolBits)) {
+            out.write(first);
+            out.write(second);
+        }
+
+        ByteArrayOutputStream resumed = new ByteArrayOutputStream();
+        ByteArrayOutputStream checkpoint = new ByteArrayOutputStream();
+
+        //the first stream is abandoned after the checkpoint, as if the process had stopped
+        AdaptiveHuffmanOutputStream interrupted = new AdaptiveHuffmanOutputStream(resumed, symbolBits);
+        interrupted.write(first);
+        interrupted.checkpoint(new DataOutputStream(checkpoint));
+
+        DataInputStream checkpointIn = new DataInputStream(new ByteArrayInputStream(checkpoint.toByteArray()));
+        try(OutputStream out = new AdaptiveHuffmanOutputStream(resumed, symbolBits, checkpointIn)) {
+            out.write(second);
+        }
+
+        assertArrayEquals(uninterrupted.toByteArray(), resumed.toByteArray());
+    }
+
+    /**
+     * An encoder and a decoder which have already been used, and given back to a pool, compress and decompress just
+     * like new ones.
+     */
+    @Property(tries = 50)
+    void pooledCodecRoundTrip(@ForAll("data") byte[] first, @ForAll("data") byte[] second, @ForAll @IntRange(min = 1, max = 16) int symbolBits) throws IOException {
+        //a pool of one hands the same encoder and decoder out every time
+        CodecPool pool = new CodecPool(symbolBits, 1);
+
+        AdaptiveHuffmanEncoder encoder = pool.acquireEncoder();
+        AdaptiveHuffmanDecoder decoder = pool.acquireDecoder();
+        assertArrayEquals(first, roundTripFile(first, symbolBits, false, encoder, decoder));
+        pool.releaseEncoder(encoder);
+        pool.releaseDecoder(decoder);
+
+        assertSame(encoder, pool.acquireEncoder());
+        assertSame(decoder, pool.acquireDecoder());
+        assertArrayEquals(second, roundTripFile(second, symbolBits, false, encoder, decoder));
+    }
+
+    /**
+     * Compressing an array in memory gives the same bytes as compressing it as a file, no more bytes than the bound,
+     * and decompresses back to the original array.
+     */
+    @Property(tries = 200)
+    void arrayRoundTrip(@ForAll("data") byte[] data, @ForAll @IntRange(min = 1, max = 16) int symbolBits) throws IOException {
+        byte[] compressed = new AdaptiveHuffmanEncoder(symbolBits).compress(data);
+
+        assertTrue(compressed.length <= AdaptiveHuffmanEncoder.maxCompressedLength(data.length, symbolBits));
+        assertArrayEquals(compressFile(data, symbolBits), compressed);
+        assertArrayEquals(data, new AdaptiveHuffmanDecoder().decompress(compressed));
+    }
+
+    /**
+     * Compressing between buffers reads and writes only from their positions, whatever their byte order, so several
+     * messages can be packed into one buffer and read back one after another.
+     */
+    @Property(tries = 50)
+    void bufferRoundTrip(@ForAll("data") byte[] first, @ForAll("data") byte[] second, @ForAll @IntRange(min = 1, max = 16) int symbolBits) throws IOException {
+        AdaptiveHuffmanEncoder encoder = new AdaptiveHuffmanEncoder(symbolBits);
+        AdaptiveHuffmanDecoder decoder = new AdaptiveHuffmanDecoder();
+
+        ByteBuffer compressed = ByteBuffer.allocate((int) (AdaptiveHuffmanEncoder.maxCompressedLength(first.length, symbolBits)
+                + AdaptiveHuffmanEncoder.maxCompressedLength(second.length, symbolBits))).order(ByteOrder.LITTLE_ENDIAN);
+        int firstLength = encoder.compress(ByteBuffer.wrap(first), compressed);
+        int secondLength = encoder.compress(ByteBuffer.wrap(second), compressed);
+        assertEquals(firstLength + secondLength, compressed.position());
+        compressed.flip();
+
+        ByteBuffer decompressed = ByteBuffer.allocate(first.length + second.length).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(first.length, decoder.decompress(compressed, decompressed));
+        assertEquals(firstLength, compressed.position());
+        assertEquals(second.length, decoder.decompress(compressed, decompressed));
+        assertFalse(compressed.hasRemaining());
+
+        assertArrayEquals(first, Arrays.copyOfRange(decompressed.array(), 0, first.length));
+        assertArrayEquals(second, Arrays.copyOfRange(decompressed.array(), first.length, decompressed.position()));
+    }
+
+    /**
+     * The longest codes come from symbols whose counts follow the Fibonacci numbers, which make the tree as deep as its
+     * weight allows. Even these fit in a buffer of the bound.
+     */
+    @Example
+    void fibonacciCountsFitTheBound() throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        for(int symbol = 0, count = 1, nextCount = 1; symbol < 20; symbol++) {
+            for(int i = 0; i < count; i++) {
+                data.write(symbol);
+            }
+            nextCount += count;
+            count = nextCount - count;
+        }
+
+        ByteBuffer compressed = ByteBuffer.allocate((int) AdaptiveHuffmanEncoder.maxCompressedLength(data.size(), 8));
+        new AdaptiveHuffmanEncoder(8).compress(ByteBuffer.wrap(data.toByteArray()), compressed);
+        compressed.flip();
+
+        assertArrayEquals(data.toByteArray(), new AdaptiveHuffmanDecoder().decompress(Arrays.copyOf(compressed.array(), compressed.limit())));
+    }
+
+    /**
+     * Bytes compressed with a dictionary decompress with the same dictionary, read back from where it was stored, and
+     * cannot be decompressed without it.
+     */
+    @Property(tries = 100)
+    void dictionaryRoundTrip(@ForAll("data") byte[] sample, @ForAll("data") byte[] data, @ForAll @IntRange(min = 1, max = 16) int symbolBits) throws IOException {
+        Dictionary dictionary = Dictionary.train(symbolBits, Collections.singletonList(sample));
+
+        ByteArrayOutputStream stored = new ByteArrayOutputStream();
+        dictionary.write(stored);
+        Dictionary storedDictionary = Dictionary.read(new ByteArrayInputStream(stored.toByteArray()));
+        assertEquals(dictionary.getId(), storedDictionary.getId());
+
+        byte[] compressed = new AdaptiveHuffmanEncoder(dictionary).compress(data);
+        assertTrue(compressed.length <= AdaptiveHuffmanEncoder.maxCompressedLength(data.length, dictionary));
+
+        //bytes which did not get any smaller are stored as they are, which needs no dictionary
+        AdaptiveHuffmanDecoder decoder = new AdaptiveHuffmanDecoder();
+        if(compressed.length < FileHeader.SIZE + data.length)
+            assertThrows(IOException.class, () -> decoder.decompress(compressed));
+
+        decoder.addDictionary(storedDictionary);
+        assertArrayEquals(data, decoder.decompress(compressed));
+    }
+
+    /**
+     * A dictionary with weights near the largest it may hold is read in no time, as its tree is built from the weights
+     * rather than from one symbol for each unit of weight, and still compresses and decompresses.
+     */
+    @Example
+    void heavyDictionaryRoundTrip() throws IOException {
+        ByteArrayOutputStream stored = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(stored);
+        out.writeInt(Dictionary.MAGIC);
+        out.writeByte(8);
+        out.writeInt(2);
+        out.writeShort('a');
+        out.writeInt(Integer.MAX_VALUE / 4);
+        out.writeShort('b');
+        out.writeInt(Integer.MAX_VALUE / 4);
+
+        Dictionary dictionary = Dictionary.read(new ByteArrayInputStream(stored.toByteArray()));
+        byte[] data = "abracadabra".getBytes(StandardCharsets.US_ASCII);
+
+        AdaptiveHuffmanDecoder decoder = new AdaptiveHuffmanDecoder();
+        decoder.addDictionary(dictionary);
+        assertArrayEquals(data, decoder.decompress(new AdaptiveHuffmanEncoder(dictionary).compress(data)));
+    }
+
+    /**
+     * Trees which rescale their weights, keep a window of the most recent symbols or code each symbol with the tree of
+     * the symbol before it decompress back to the original bytes, with the decoder finding the settings in the header,
+     * and stay within the bound of the encoder.
+     */
+    @Property(tries = 300)
+    void configuredTreesRoundTrip(@ForAll("data") byte[] data, @ForAll("encoderSettings") EncoderSettings settings,
+                                  @ForAll boolean parallel) throws IOException {
+        AdaptiveHuffmanEncoder encoder = settings.makeEncoder();
+
+        assertArrayEquals(data, roundTripFile(data, settings.symbolBits, parallel, encoder, new AdaptiveHuffmanDecoder()));
+
+        byte[] compressed = encoder.compress(data);
+        assertTrue(compressed.length <= encoder.getMaxCompressedLength(data.length));
+        assertArrayEquals(data, new AdaptiveHuffmanDecoder().decompress(compressed));
+    }
+
+    /**
+     * Trees keep the sibling property as symbols are taken back out and the weights are rescaled, which reading a
+     * snapshot of the tree checks, and the tree read back gives every symbol the same code.
+     */
+    @Property(tries = 100)
+    void treeKeepsSiblingPropertyThroughRemovalsAndRescales(@ForAll @Size(max = 2000) byte[] data,
+                                                            @ForAll @IntRange(min = 1, max = 8) int symbolBits,
+                                                            @ForAll @IntRange(min = 2, max = 200) int rescaleInterval) throws IOException {
+        AdaptiveHuffmanTree tree = new AdaptiveHuffmanTree(symbolBits);
+        int symbolMask = (1 << symbolBits) - 1;
+
+        //the number of times each symbol is in the tree
+        int[] counts = new int[1 << symbolBits];
+
+        for(int i = 0; i < data.length; i++) {
+            int symbol = data[i] & symbolMask;
+            tree.addCharToTree(symbol);
+            counts[symbol]++;
+
+            //every third symbol takes the one before it back out, which can take its leaf out of the tree altogether
+            if(i % 3 == 2) {
+                int symbolToRemove = data[i - 1] & symbolMask;
+                if(counts[symbolToRemove] > 0) {
+                    tree.removeCharFromTree(symbolToRemove);
+                    counts[symbolToRemove]--;
+                    assertSnapshotMatches(tree);
+                }
+            }
+
+            if(i % rescaleInterval == rescaleInterval - 1) {
+                tree.rescale();
+                for(int j = 0; j < counts.length; j++) {
+                    counts[j] = (counts[j] + 1) >>> 1;
+                }
+                assertSnapshotMatches(tree);
+            }
+        }
+    }
+
+    /**
+     * Files read and written on threads of their own decompress back to the original bytes, with blocks small enough
+     * that the buffers go round the rings many times.
+     */
+    @Property(tries = 100)
+    void pipelinedFileRoundTrip(@ForAll("data") byte[] data, @ForAll @IntRange(min = 1, max = 16) int symbolBits,
+                                @ForAll @IntRange(min = 8, max = 4096) int blockSize) throws IOException {
+        AdaptiveHuffmanEncoder encoder = new AdaptiveHuffmanEncoder(symbolBits, blockSize);
+        encoder.setPipelined(true);
+        AdaptiveHuffmanDecoder decoder = new AdaptiveHuffmanDecoder(blockSize);
+        decoder.setPipelined(true);
+
+        assertArrayEquals(data, roundTripFile(data, symbolBits, false, encoder, decoder));
+    }
+
+    /**
+     * Random bytes, some of them after a run of one byte which does compress, are stored rather than growing, and
+     * still decompress back to the original bytes, whether they are stored as a whole, in chunks or not at all.
+     */
+    @Property(tries = 30)
+    void incompressibleDataIsStored(@ForAll long seed, @ForAll @IntRange(max = 300000) int length,
+                                    @ForAll @IntRange(max = 100000) int compressibleLength,
+                                    @ForAll @IntRange(min = 1, max = 16) int symbolBits, @ForAll boolean parallel) throws IOException {
+        byte[] data = new byte[length];
+        new Random(seed).nextBytes(data);
+        Arrays.fill(data, 0, Math.min(compressibleLength, length), (byte) 'a');
+
+        assertArrayEquals(data, roundTripFile(data, symbolBits, parallel));
+
+        byte[] compressed = new AdaptiveHuffmanEncoder(symbolBits).compress(data);
+        assertTrue(compressed.length <= FileHeader.SIZE + length);
+        assertArrayEquals(data, new AdaptiveHuffmanDecoder().decompress(compressed));
+    }
+
+    /**
+     * The width picked from samples is always one of the candidates, picking it leaves the buffer where it was, and the
+     * data decompresses back to the original bytes at that width.
+     */
+    @Property(tries = 50)
+    void selectedWidthRoundTrip(@ForAll("data") byte[] data, @ForAll SymbolWidthSelector.Policy policy) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        int symbolBits = new SymbolWidthSelector(policy).selectWidth(buffer);
+
+        assertTrue(symbolBits == 2 || symbolBits == 4 || symbolBits == 8);
+        assertEquals(0, buffer.position());
+        assertEquals(data.length, buffer.limit());
+        assertArrayEquals(data, roundTripFile(data, symbolBits, false));
+    }
+
+    /**
+     * The estimated compressed length is exactly the length compress and encode produce, whether the data is coded or
+     * stored, with the trees of any settings.
+     */
+    @Property(tries = 100)
+    void estimatedLengthIsExact(@ForAll("data") byte[] data, @ForAll @IntRange(min = 1, max = 16) int symbolBits,
+                                @ForAll boolean rescaled, @ForAll boolean useContexts) throws IOException {
+        AdaptiveHuffmanEncoder encoder = new AdaptiveHuffmanEncoder(symbolBits);
+        if(rescaled)
+            encoder.setRescaleThreshold(1000);
+        encoder.setOrder1Contexts(useContexts && symbolBits <= 8);
+
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        long estimate = encoder.estimateCompressedLength(buffer);
+
+        assertEquals(0, buffer.position());
+        assertEquals(encoder.compress(data).length, estimate);
+
+        Path directory = Files.createTempDirectory("adaptive-huffman-test");
+        Path original = directory.resolve("data.bin");
+        Path compressed = directory.resolve("data.compressed" + symbolBits + ".bin");
+
+        try {
+            Files.write(original, data);
+            encoder.encode(original.toString());
+            assertEquals(Files.size(compressed), encoder.estimateCompressedLength(original.toString()));
+        } finally {
+            Files.deleteIfExists(original);
+            Files.deleteIfExists(compressed);
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * A header claiming more bytes than the data after it could decompress to is turned away before anything is
+     * allocated for them.
+     */
+    @Example
+    void impossibleOriginalLengthIsRejected() {
+        ByteBuffer coded = ByteBuffer.allocate(FileHeader.SIZE + 4);
+        new FileHeader(8, 0, 2000000000L).write(coded);
+        assertThrows(IOException.class, () -> new AdaptiveHuffmanDecoder().decompress(coded.array()));
+
+        ByteBuffer stored = ByteBuffer.allocate(FileHeader.SIZE + 4);
+        new FileHeader(8, FileHeader.STORED_FLAG, 5).write(stored);
+        assertThrows(IOException.class, () -> new AdaptiveHuffmanDecoder().decompress(stored.array()));
+    }
+
+    @Example
+    void emptyFileRoundTrip() throws IOException {
+        assertArrayEquals(new byte[0], roundTripFile(new byte[0], 8, false));
+        assertArrayEquals(new byte[0], roundTripFile(new byte[0], 8, true));
+    }
+
+    /**
+     * Generated data is mostly small, so this makes sure that files of several chunks, the last one partly full, are
+     * put back together in the right order.
+     */
+    @Example
+    void parallelFileRoundTripOverSeveralChunks() throws IOException {
+        byte[] data = new byte[3 * AdaptiveHuffmanEncoder.MIN_CHUNK_SIZE + 12345];
+        Random random = new Random(1);
+
+        //each chunk gets a different mix of bytes
+        for(int i = 0; i < data.length; i++) {
+            data[i] = (byte) (random.nextInt(1 + i / 1000) + i / AdaptiveHuffmanEncoder.MIN_CHUNK_SIZE);
+        }
+
+        for(int symbolBits : new int[]{3, 8, 16}) {
+            assertArrayEquals(data, roundTripFile(data, symbolBits, true));
+        }
+    }
+
+    /**
+     * Bytes of every kind: random bytes, bytes from a few symbols so that the tree grows deep and lopsided, and long
+     * runs of the same byte.
+     */
+    @Provide
+    Arbitrary<byte[]> data() {
+        Arbitrary<byte[]> random = Arbitraries.bytes().array(byte[].class).ofMaxSize(20000);
+
+        Arbitrary<byte[]> fewSymbols = Arbitraries.of((byte) 'a', (byte) 'b', (byte) 'c', (byte) 0, (byte) 0xff)
+                .array(byte[].class).ofMaxSize(20000);
+
+        Arbitrary<byte[]> runs = Arbitraries.bytes().flatMap(value -> Arbitraries.integers().between(0, 20000).map(length -> {
+            byte[] run = new byte[length];
+            Arrays.fill(run, value);
+            return run;
+        }));
+
+        return Arbitraries.oneOf(random, fewSymbols, runs);
+    }
+
+    /**
+     * The settings of the trees of an encoder, of any width: a rescale threshold or a window size, as a tree cannot
+     * have both, and order 1 contexts for symbols which are narrow enough.
+     */
+    @Provide
+    Arbitrary<EncoderSettings> encoderSettings() {
+        Arbitrary<int[]> thresholdAndWindow = Arbitraries.oneOf(
+                Arbitraries.just(new int[]{AdaptiveHuffmanTree.NO_RESCALING, AdaptiveHuffmanTree.NO_WINDOW}),
+                Arbitraries.integers().between(2, 5000).map(threshold -> new int[]{threshold, AdaptiveHuffmanTree.NO_WINDOW}),
+                Arbitraries.integers().between(1, 5000).map(windowSize -> new int[]{AdaptiveHuffmanTree.NO_RESCALING, windowSize}));
+
+        return Combinators.combine(Arbitraries.integers().between(1, 16), thresholdAndWindow, Arbitraries.of(true, false))
+                .as((symbolBits, settings, contexts) -> new EncoderSettings(symbolBits, settings[0], settings[1],
+                        contexts && symbolBits <= ContextTrees.MAX_SYMBOL_BITS));
+    }
+
+    /**
+     * The settings an encoder is made with, which are all written in the header.
+     */
+    private static final class EncoderSettings {
+
+        private final int symbolBits;
+        private final int rescaleThreshold;
+        private final int windowSize;
+        private final boolean order1Contexts;
+
+        private EncoderSettings(int symbolBits, int rescaleThreshold, int windowSize, boolean order1Contexts) {
+            this.symbolBits = symbolBits;
+            this.rescaleThreshold = rescaleThreshold;
+            this.windowSize = windowSize;
+            this.order1Contexts = order1Contexts;
+        }
+
+        /**
+         * Makes a new encoder with the settings.
+         * @return The encoder.
+         */
+        private AdaptiveHuffmanEncoder makeEncoder() {
+            AdaptiveHuffmanEncoder encoder = new AdaptiveHuffmanEncoder(this.symbolBits);
+            encoder.setRescaleThreshold(this.rescaleThreshold);
+            encoder.setWindowSize(this.windowSize);
+            encoder.setOrder1Contexts(this.order1Contexts);
+            return encoder;
+        }
+
+        @Override
+        public String toString() {
+            return this.symbolBits + " bits, rescale threshold " + this.rescaleThreshold + ", window size "
+                    + this.windowSize + (this.order1Contexts ? ", order 1 contexts" : "");
+        }
+    }
+
+    /**
+     * Writes a snapshot of the tree and reads it back into a new tree, which checks the sibling property, and checks
+     * that the new tree gives every symbol, and the NYT node, the same code as the tree does.
+     * @param tree The tree to check.
+     * @throws IOException If the snapshot is damaged.
+     */
+    private static void assertSnapshotMatches(AdaptiveHuffmanTree tree) throws IOException {
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        tree.writeSnapshot(new DataOutputStream(snapshot));
+
+        AdaptiveHuffmanTree restored = new AdaptiveHuffmanTree(tree.getSymbolBits());
+        restored.readSnapshot(new DataInputStream(new ByteArrayInputStream(snapshot.toByteArray())));
+
+        assertEquals(tree.getHuffmanCodeLength(AdaptiveHuffmanTree.NYT), restored.getHuffmanCodeLength(AdaptiveHuffmanTree.NYT));
+        assertEquals(tree.getHuffmanCode(AdaptiveHuffmanTree.NYT), restored.getHuffmanCode(AdaptiveHuffmanTree.NYT));
+
+        for(int symbol = 0; symbol < 1 << tree.getSymbolBits(); symbol++) {
+            assertEquals(tree.symbolExists(symbol), restored.symbolExists(symbol));
+
+            if(tree.symbolExists(symbol)) {
+                assertEquals(tree.getHuffmanCodeLength(symbol), restored.getHuffmanCodeLength(symbol));
+                assertEquals(tree.getHuffmanCode(symbol), restored.getHuffmanCode(symbol));
+            }
+        }
+    }
+
+    /**
+     * Compresses the data as a file.
+     * @param data The data to compress.
+     * @param symbolBits The number of bits in each symbol.
+     * @return The compressed file.
+     * @throws IOException If the files could not be written or read.
+     */
+    private static byte[] compressFile(byte[] data, int symbolBits) throws IOException {
+        Path directory = Files.createTempDirectory("adaptive-huffman-test");
+
+        try {
+            Path original = directory.resolve("data.bin");
+            Files.write(original, data);
+
+            new AdaptiveHuffmanEncoder(symbolBits).encode(original.toString());
+
+            return Files.readAllBytes(directory.resolve("data.compressed" + symbolBits + ".bin"));
+        } finally {
+            for(File file : directory.toFile().listFiles()) {
+                file.delete();
+            }
+            directory.toFile().delete();
+        }
+    }
+
+    /**
+     * Compresses the data as a file and decompresses it again, with a new encoder and decoder.
+     * @param data The data to compress.
+     * @param symbolBits The number of bits in each symbol.
+     * @param parallel True to compress the file in parallel chunks of the smallest size.
+     * @return The decompressed data.
+     * @throws IOException If the files could not be written or read.
+     */
+    private static byte[] roundTripFile(byte[] data, int symbolBits, boolean parallel) throws IOException {
+        return roundTripFile(data, symbolBits, parallel, new AdaptiveHuffmanEncoder(symbolBits), new AdaptiveHuffmanDecoder());
+    }
+
+    /**
+     * Compresses the data as a file and decompresses it again.
+     * @param data The data to compress.
+     * @param symbolBits The number of bits in each symbol, which the encoder must have been constructed with.
+     * @param parallel True to compress the file in parallel chunks of the smallest size.
+     * @param encoder The encoder to compress the file with.
+     * @param decoder The decoder to decompress the file with.
+     * @return The decompressed data.
+     * @throws IOException If the files could not be written or read.
+     */
+    private static byte[] roundTripFile(byte[] data, int symbolBits, boolean parallel, AdaptiveHuffmanEncoder encoder,
+                                        AdaptiveHuffmanDecoder decoder) throws IOException {
+        Path directory = Files.createTempDirectory("adaptive-huffman-test");
+
+        try {
+            Path original = directory.resolve("data.bin");
+            Files.write(original, data);
+
+            if(parallel)
+                encoder.encodeParallel(original.toString(), AdaptiveHuffmanEncoder.MIN_CHUNK_SIZE);
+            else
+                encoder.encode(original.toString());
+
+            Path compressed = directory.resolve("data.compressed" + symbolBits + ".bin");
+            decoder.decode(compressed.toString());
+
+            //files compressed in chunks can be decompressed in memory too
+            if(parallel)
+                assertArrayEquals(data, new AdaptiveHuffmanDecoder().decompress(Files.readAllBytes(compressed)));
+
+            return Files.readAllBytes(directory.resolve("data.decompressed.bin"));
+        } finally {
+            for(File file : directory.toFile().listFiles()) {
+                file.delete();
+            }
+            directory.toFile().delete();
+        }
+    }
+}